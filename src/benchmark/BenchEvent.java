@@ -0,0 +1,76 @@
+package benchmark;
+import stochasticSimulation.Event;
+import stochasticSimulation.Individual;
+
+/**
+ * BenchEvent is an Event that does nothing when simulated. It is used by the benchmarks to
+ * fill the PECs with events of a given time and individual.
+ *
+ * @author Manuel Serra
+ */
+class BenchEvent implements Event {
+
+	/**
+	 * The individual associated with the event.
+	 */
+	protected Individual ind;
+	/**
+	 * The time stamp of the event.
+	 */
+	protected double time;
+	/**
+	 * The position of the event inside the PEC, or -1 if the PEC does not track it.
+	 */
+	protected int pecIndex = -1;
+
+	/**
+	 * Constructor for a BenchEvent.
+	 * @param ind the individual associated with the event.
+	 * @param time the time stamp of the event.
+	 */
+	BenchEvent(Individual ind, double time) {
+		this.ind = ind;
+		this.time = time;
+	}
+
+	/**
+	 * Nothing happens when a BenchEvent is simulated.
+	 */
+	public void simulateEvent() {
+	}
+
+	/**
+	 * A getter for the ID of the individual associated with the event.
+	 */
+	public int getIndID() {
+		return ind.getID();
+	}
+
+	/**
+	 * A getter for the individual associated with the event.
+	 */
+	public Individual getInd() {
+		return ind;
+	}
+
+	/**
+	 * A getter for the time stamp of the event.
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * A getter for the position of the event inside the PEC.
+	 */
+	public int getPecIndex() {
+		return pecIndex;
+	}
+
+	/**
+	 * A setter for the position of the event inside the PEC.
+	 */
+	public void setPecIndex(int index) {
+		pecIndex = index;
+	}
+}
@@ -0,0 +1,154 @@
+package benchmark;
+import pec.ConcurrentPEC;
+import pec.IPEC;
+import pec.PEC;
+import stochasticSimulation.Event;
+import stochasticSimulation.EventComparator;
+import stochasticSimulation.Individual;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+
+/**
+ * PECContentionBenchmark measures the throughput of a ConcurrentPEC and of a PEC behind a single lock
+ * when several threads add, retrieve and remove events at the same time, with 1 to 32 threads.
+ * Each thread owns its own individuals and takes a mix of operations: half are additions, four tenths are
+ * retrievals of the first event and one tenth are removals of all the events of an individual.
+ * Usage: java benchmark.PECContentionBenchmark [operations per thread] [initial events]
+ *
+ * @author Manuel Serra
+ */
+public class PECContentionBenchmark {
+
+	/**
+	 * The numbers of threads that are measured.
+	 */
+	static final int[] THREADS = {1, 2, 4, 8, 16, 32};
+	/**
+	 * The number of individuals owned by each thread.
+	 */
+	static final int INDIVIDUALS = 256;
+	/**
+	 * The number of times each measurement is repeated, the first ones serving as warm up.
+	 */
+	static final int ROUNDS = 3;
+
+	/**
+	 * A PEC where every method holds the lock of the PEC, the simplest way of sharing a PEC between threads.
+	 */
+	static class LockedPEC implements IPEC {
+
+		/**
+		 * The PEC behind the lock.
+		 */
+		protected final PEC pec = new PEC(1024, new EventComparator());
+
+		@Override
+		public synchronized Event getNextEvent() {
+			return pec.getNextEvent();
+		}
+
+		@Override
+		public synchronized void addEvent(Event ev) {
+			pec.addEvent(ev);
+		}
+
+		@Override
+		public synchronized void removeIndEvents(Individual ind) {
+			pec.removeIndEvents(ind);
+		}
+
+		@Override
+		public synchronized boolean isEmptyPEC() {
+			return pec.isEmptyPEC();
+		}
+
+		@Override
+		public synchronized int getSize() {
+			return pec.getSize();
+		}
+	}
+
+	/**
+	 * Runs the benchmark and prints the throughput of each PEC for each number of threads.
+	 * @param args the number of operations per thread and the number of events in the PEC at the start.
+	 * @throws InterruptedException if the main thread is interrupted while waiting for the workers.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+
+		int ops = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int initial = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+		System.out.println("threads\tlocked (Mops/s)\tconcurrent (Mops/s)");
+
+		for(int threads : THREADS) {
+			double locked = 0, concurrent = 0;
+			for(int round = 0; round < ROUNDS; round++) {
+				locked = run(new LockedPEC(), threads, ops, initial);
+				concurrent = run(new ConcurrentPEC(threads * INDIVIDUALS, new EventComparator()), threads, ops, initial);
+			}
+			System.out.printf("%d\t%.2f\t%.2f%n", threads, locked, concurrent);
+		}
+	}
+
+	/**
+	 * This method measures the throughput of a PEC under a given number of threads.
+	 * @param pec the PEC to be measured.
+	 * @param threads the number of threads working on the PEC at the same time.
+	 * @param ops the number of operations of each thread.
+	 * @param initial the number of events added to the PEC before the threads start.
+	 * @return the number of millions of operations per second.
+	 * @throws InterruptedException if the main thread is interrupted while waiting for the workers.
+	 */
+	static double run(IPEC pec, int threads, int ops, int initial) throws InterruptedException {
+
+		Individual[][] owned = new Individual[threads][INDIVIDUALS];
+		for(int t = 0; t < threads; t++)
+			for(int i = 0; i < INDIVIDUALS; i++)
+				owned[t][i] = new Individual(t * INDIVIDUALS + i);
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for(int i = 0; i < initial; i++)
+			pec.addEvent(new BenchEvent(owned[i % threads][random.nextInt(INDIVIDUALS)], random.nextDouble()));
+
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+
+		for(int t = 0; t < threads; t++) {
+			Individual[] mine = owned[t];
+			new Thread(() -> {
+				ThreadLocalRandom rnd = ThreadLocalRandom.current();
+				double now = 0;
+				try {
+					start.await();
+				} catch(InterruptedException e) {
+					return;
+				}
+				for(int i = 0; i < ops; i++) {
+					int r = rnd.nextInt(10);
+					if(r < 5)
+						pec.addEvent(new BenchEvent(mine[rnd.nextInt(INDIVIDUALS)], now - Math.log(1 - rnd.nextDouble())));
+					else if(r < 9) {
+						//another thread may have emptied the PEC
+						try {
+							now = pec.getNextEvent().getTime();
+						} catch(NoSuchElementException e) {
+						}
+					}
+					else
+						pec.removeIndEvents(mine[rnd.nextInt(INDIVIDUALS)]);
+				}
+				done.countDown();
+			}).start();
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		done.await();
+		long elapsed = System.nanoTime() - begin;
+
+		return (double) threads * ops / elapsed * 1000;
+	}
+}
@@ -0,0 +1,237 @@
+package benchmark;
+import pec.IPEC;
+import pec.PECFactory;
+import pec.RecordingPEC;
+import stochasticSimulation.Event;
+import stochasticSimulation.EventComparator;
+import stochasticSimulation.Individual;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * PECReplay drives PECs with a trace recorded by a RecordingPEC during a simulation, so that PEC
+ * implementations can be compared on the same mix of additions, retrievals and removals as a real run. The events
+ * of the individuals killed by an epidemic are removed in a single call, as in the simulation.
+ * For each PEC it reports the mean time per operation, the bytes allocated per operation and the largest
+ * number of events it held. It also counts the retrievals whose time differs from the recorded one, which
+ * only happens when PECs break ties between events with equal times in different ways.
+ * The trace is read into memory and the events are created before the measurement starts.
+ * Usage: java benchmark.PECReplay trace-file [pec type ...]
+ *
+ * @author Manuel Serra
+ */
+public class PECReplay {
+
+	/**
+	 * The number of times each trace is replayed before the measurement, to warm up the virtual machine.
+	 */
+	static final int WARMUP = 3;
+	/**
+	 * The number of times each trace is replayed in the measurement.
+	 */
+	static final int ROUNDS = 5;
+
+	/**
+	 * The operation of each record of the trace.
+	 */
+	protected byte[] ops;
+	/**
+	 * The key of the individual of each record of the trace.
+	 */
+	protected int[] keys;
+	/**
+	 * The time of the event of each record of the trace.
+	 */
+	protected double[] times;
+	/**
+	 * The keys of the individuals of each removal of many individuals at once, in the order of the trace. The key of
+	 * the record of such a removal is its position in this array.
+	 */
+	protected int[][] groups;
+	/**
+	 * The number of removals of many individuals at once in the trace.
+	 */
+	protected int nGroups = 0;
+	/**
+	 * The number of records in the trace.
+	 */
+	protected int n = 0;
+	/**
+	 * The number of individuals in the trace.
+	 */
+	protected int nKeys = 0;
+
+	/**
+	 * Constructor for a PECReplay that reads a trace file.
+	 * @param file the name of the trace file.
+	 * @throws IOException if the file can not be read or is not a trace.
+	 */
+	PECReplay(String file) throws IOException {
+
+		ops = new byte[1024];
+		keys = new int[1024];
+		times = new double[1024];
+		groups = new int[16][];
+
+		try( DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream(file), 1 << 16 ) ) ) {
+
+			//the format of each version only adds operations to the ones before it
+			if(in.readInt() != RecordingPEC.MAGIC)
+				throw new IOException("Not a PEC trace: " + file);
+			int version = in.readInt();
+			if(version < 1 || version > RecordingPEC.VERSION)
+				throw new IOException("Unknown version " + version + " of PEC trace: " + file);
+
+			while(true) {
+				byte op;
+				try {
+					op = in.readByte();
+				} catch(EOFException e) {
+					break;
+				}
+
+				if(n == ops.length) {
+					ops = Arrays.copyOf(ops, 2 * n);
+					keys = Arrays.copyOf(keys, 2 * n);
+					times = Arrays.copyOf(times, 2 * n);
+				}
+
+				if(op < RecordingPEC.ADD || op > RecordingPEC.REMOVE_ALL)
+					throw new IOException("Unknown operation " + op + " in " + file);
+
+				ops[n] = op;
+				if(op == RecordingPEC.REMOVE_ALL) {
+					int[] group = new int[in.readInt()];
+					for(int i = 0; i < group.length; i++) {
+						group[i] = in.readInt();
+						nKeys = Math.max(nKeys, group[i] + 1);
+					}
+					if(nGroups == groups.length)
+						groups = Arrays.copyOf(groups, 2 * nGroups);
+					groups[nGroups] = group;
+					keys[n] = nGroups++;
+				} else {
+					keys[n] = in.readInt();
+					if(op != RecordingPEC.REMOVE)
+						times[n] = in.readDouble();
+					nKeys = Math.max(nKeys, keys[n] + 1);
+				}
+				n++;
+			}
+		}
+	}
+
+	/**
+	 * Replays a trace against PECs and prints the measurements.
+	 * @param args the name of the trace file followed by the names of the PECs, as given to PECFactory.
+	 * @throws IOException if the trace can not be read.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		if(args.length < 1) {
+			System.out.println("Usage: java benchmark.PECReplay trace-file [pec type ...]");
+			return;
+		}
+
+		PECReplay replay = new PECReplay(args[0]);
+		String[] types = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : PECFactory.TYPES;
+
+		System.out.println(replay.n + " operations on " + replay.nKeys + " individuals");
+		System.out.println("pec\tns/op\tbytes/op\tpeak size\tmismatches");
+
+		for(String type : types) {
+			long[] checked = replay.run(type, true);
+			for(int i = 0; i < WARMUP; i++)
+				replay.run(type, false);
+
+			long elapsed = 0, allocated = 0;
+			for(int i = 0; i < ROUNDS; i++) {
+				long[] round = replay.run(type, false);
+				elapsed += round[0];
+				allocated += round[1];
+			}
+
+			System.out.printf("%s\t%.1f\t%.1f\t%d\t%d%n", type, (double) elapsed / ROUNDS / replay.n,
+					(double) allocated / ROUNDS / replay.n, checked[2], checked[3]);
+		}
+	}
+
+	/**
+	 * This method replays the trace once against a new PEC.
+	 * @param type the name of the PEC.
+	 * @param check true if the size of the PEC and the times of the retrieved events are to be checked, which
+	 * makes the time of the replay meaningless.
+	 * @return the elapsed nanoseconds, the allocated bytes, the peak size and the number of mismatches.
+	 */
+	long[] run(String type, boolean check) {
+
+		//the individuals and events are created before the measurement
+		Individual[] inds = new Individual[nKeys];
+		for(int i = 0; i < nKeys; i++)
+			inds[i] = new Individual(i);
+
+		Event[] events = new Event[n];
+		for(int i = 0; i < n; i++) {
+			if(ops[i] == RecordingPEC.ADD)
+				events[i] = new BenchEvent(keys[i] < 0 ? null : inds[keys[i]], times[i]);
+		}
+
+		List<List<Individual>> victims = new ArrayList<List<Individual>>(nGroups);
+		for(int g = 0; g < nGroups; g++) {
+			List<Individual> group = new ArrayList<Individual>(groups[g].length);
+			for(int key : groups[g])
+				group.add(inds[key]);
+			victims.add(group);
+		}
+
+		IPEC pec = PECFactory.newPEC(type, 16, new EventComparator());
+		long peak = 0, mismatches = 0;
+
+		long allocated = allocatedBytes();
+		long begin = System.nanoTime();
+
+		for(int i = 0; i < n; i++) {
+			switch(ops[i]) {
+				case RecordingPEC.ADD:
+					pec.addEvent(events[i]);
+					if(check) peak = Math.max(peak, pec.getSize());
+					break;
+				case RecordingPEC.NEXT:
+					Event ev = pec.getNextEvent();
+					if(check && ev.getTime() != times[i]) mismatches++;
+					break;
+				case RecordingPEC.REMOVE_ALL:
+					pec.removeIndEvents(victims.get(keys[i]));
+					break;
+				default:
+					pec.removeIndEvents(inds[keys[i]]);
+			}
+		}
+
+		long elapsed = System.nanoTime() - begin;
+		allocated = allocatedBytes() - allocated;
+
+		return new long[] {elapsed, allocated, peak, mismatches};
+	}
+
+	/**
+	 * This method retrieves the number of bytes allocated so far by the current thread.
+	 * @return the allocated bytes, or 0 if the virtual machine does not measure them.
+	 */
+	static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(bean instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return 0;
+	}
+}
@@ -1,10 +1,14 @@
 package main;
 
+import java.io.Closeable;
 import java.io.File;
 import javax.xml.parsers.*;
 import java.util.HashMap;
 import java.util.Map;
 
+import pec.PECFactory;
+import pec.PrimitivePEC;
+
 
 //import stochasticShortestPath.Grid;
 //import stochasticShortestPath.StochasticShortestPathParser;
@@ -22,12 +26,56 @@ import stochasticSimulation.*;
  * determined in the input file.
  * This also function received as parameter a Map containing the parameters needed for a
  * stochastic simulation.
+ * Optional parameters can be given in the command line after the input file, as key=value pairs,
+ * overriding the ones in the input file. For example, pec=calendar selects the PEC implementation.
+ * Only the options in OPTIONS can be given, and their values are checked before the simulation starts.
  * 
  *@author Manuel Serra 
  */
 public class Main {
+	
+	/**
+	 * The options that can be given in the command line.
+	 */
+	static final String[] OPTIONS = {"pec", "scheduling", "engine", "epsilon", "distance",
+										"temperature", "tiles", "trace", "seed"};
+	
+	/**
+	 * The message printed when the arguments are not valid.
+	 */
+	static final String USAGE = "Usage: java main.Main <input.xml> [key=value ...]\n"
+			+ "  pec=" + String.join("|", PECFactory.TYPES) + "|" + PrimitivePEC.NAME + "\n"
+			+ "  scheduling=split|clock\n"
+			+ "  engine=event|gillespie|tau\n"
+			+ "  epsilon=<positive number>\n"
+			+ "  distance=manhattan|bfs\n"
+			+ "  temperature=<positive number>\n"
+			+ "  tiles=<file>\n"
+			+ "  trace=<file>\n"
+			+ "  seed=<integer>";
 
 	public static void main(String[] args){
+		
+		if(args.length < 1) {
+			System.err.println(USAGE);
+			return;
+		}
+		
+		//optional parameters given in the command line
+		Map<String, String> options = new HashMap<>();
+		try {
+			for(int i = 1; i < args.length; i++) {
+				String[] option = args[i].split("=", 2);
+				if(option.length != 2)
+					throw new IllegalArgumentException("Options must be given as key=value: " + args[i]);
+				checkOption(option[0], option[1]);
+				options.put(option[0], option[1]);
+			}
+		} catch(IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			return;
+		}
 			
 		try {
 			
@@ -38,28 +86,126 @@ public class Main {
 			saxParser.parse( inputFile, handler);
 			
 			
-			Grid grid = new Grid( 
-								handler.getMapCols(), 
-								handler.getMapRows(), 
-								handler.getMapCMax(),
-								handler.getSpZones(),
-								handler.getObstacles());
-			
 			Map<String, Object> params = new HashMap<>();
 			params.put("pop", handler.getPopulation());
 			params.put("finalinst", handler.getFinalinst());
 			params.put("death", handler.getDeathParam());
 			params.put("repr", handler.getReproductionParam());
 			params.put("move", handler.getMoveParam());
+			params.put("pec", handler.getPECType());
+			params.put("scheduling", handler.getScheduling());
+			params.put("engine", handler.getEngine());
+			params.put("epsilon", handler.getEpsilon());
+			params.put("distance", handler.getDistance());
+			params.put("temperature", handler.getMoveTemperature());
+			
+			//the options of the input file are checked as those of the command line, which override them
+			for(String key : OPTIONS) {
+				if(params.get(key) != null)
+					checkOption(key, (String) params.get(key));
+			}
+			params.putAll(options);
+	
+			//the grid is kept in tiles of a memory mapped file if the tiles option is given
+			String tiles = (String) params.get("tiles");
+			Grid grid = tiles == null ?
+								new Grid( 
+										handler.getMapCols(), 
+										handler.getMapRows(), 
+										handler.getMapCMax(),
+										handler.getSpZones(),
+										handler.getObstacles())
+								:
+								new TiledGrid(
+										tiles,
+										handler.getMapCols(), 
+										handler.getMapRows(), 
+										handler.getMapCMax(),
+										handler.getSpZones(),
+										handler.getObstacles());
 	
 			Point a = handler.getIntialPoint();
 			Point b = handler.getFinalPoint();
 			
-			grid.findBestPath(a, b, params);
+			//the file of a tiled grid is closed once the simulation is over
+			try {
+				grid.findBestPath(a, b, params);
+			} finally {
+				if(grid instanceof Closeable)
+					((Closeable) grid).close();
+			}
 								
+		} catch(IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
 		} catch(Exception e) {
 			e.printStackTrace();
 		}
 	}
+	
+	/**
+	 * This method checks that an option is one of OPTIONS and that its value is valid for it.
+	 * @param key the name of the option.
+	 * @param value the value of the option.
+	 * @throws IllegalArgumentException if the option is unknown or its value is not valid.
+	 */
+	static void checkOption(String key, String value) {
+		
+		switch(key) {
+			case "pec":
+				if( !PrimitivePEC.NAME.equalsIgnoreCase(value) )
+					checkChoice(key, value, PECFactory.TYPES);
+				break;
+			case "scheduling":
+				checkChoice(key, value, "split", "clock");
+				break;
+			case "engine":
+				checkChoice(key, value, "event", "gillespie", "tau");
+				break;
+			case "distance":
+				checkChoice(key, value, "manhattan", "bfs");
+				break;
+			case "epsilon":
+			case "temperature":
+				double number;
+				try {
+					number = Double.parseDouble(value);
+				} catch(NumberFormatException e) {
+					number = Double.NaN;
+				}
+				if( !(number > 0) || Double.isInfinite(number) )
+					throw new IllegalArgumentException(key + " must be a positive number: " + value);
+				break;
+			case "seed":
+				try {
+					Long.parseLong(value);
+				} catch(NumberFormatException e) {
+					throw new IllegalArgumentException("seed must be an integer: " + value);
+				}
+				break;
+			case "tiles":
+			case "trace":
+				if(value.isEmpty())
+					throw new IllegalArgumentException(key + " must be the name of a file");
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + key);
+		}
+	}
+	
+	/**
+	 * This method checks that the value of an option is one of the values it can take, in any case.
+	 * @param key the name of the option.
+	 * @param value the value of the option.
+	 * @param choices the values the option can take.
+	 * @throws IllegalArgumentException if the value is not one of the choices.
+	 */
+	static void checkChoice(String key, String value, String... choices) {
+		
+		for(String choice : choices) {
+			if(choice.equalsIgnoreCase(value)) return;
+		}
+		throw new IllegalArgumentException("Unknown " + key + ": " + value);
+	}
 
 } 
@@ -0,0 +1,339 @@
+package pec;
+import stochasticSimulation.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+
+/**
+ *The class CalendarPEC implements the PEC interface with a calendar queue (R. Brown, 1988).
+ *Time is divided in buckets of a given width, like the days of a calendar, and each event is kept
+ *in the bucket of its day, modulo the number of buckets (the year). Events are taken from the buckets
+ *in order of day, so both adding and getting events take amortized constant time when the width of
+ *the buckets is close to the mean time between events.
+ *The number of buckets grows and shrinks with the number of events and, each time, the width of the buckets
+ *is estimated again from the events at the head of the PEC.
+ *Like in IndexedPEC, individuals keep handles to their pending events, and every event keeps the
+ *bucket where it is stored, so the events of an individual are removed without searching the PEC.
+ *
+ * @author Manuel Serra
+ */
+public class CalendarPEC implements IPEC{
+
+	/**
+	 *  The minimum number of buckets of the calendar.
+	*/
+	static final int MIN_BUCKETS = 16;
+
+	/**
+	 *  The number of events at the head of the PEC used to estimate the width of the buckets.
+	*/
+	static final int SAMPLE_SIZE = 25;
+
+	/**
+	 *  An Event comparator that compares Events by their timestamp.
+	*/
+	Comparator<Event> comparator;
+
+	/**
+	 *  The buckets of the calendar. Each bucket is kept sorted by decreasing timestamp,
+	 *  so that its earliest event is the last one.
+	*/
+	List<List<Event>> buckets;
+
+	/**
+	 *  The time span covered by each bucket.
+	*/
+	double width = 1.0;
+
+	/**
+	 *  The number of events in the PEC.
+	*/
+	int size = 0;
+
+	/**
+	 *  The day (timestamp divided by width) being searched for the next event.
+	*/
+	long currentDay = 0;
+
+	/**
+	 *  The timestamp of the last event retrieved from the PEC.
+	*/
+	double lastTime = 0.0;
+
+	/**
+	 *Constructor method for a CalendarPEC object.
+	 *
+	 * @param initCap is the initial capacity of the PEC.
+	 * @param comp is the comparator with which the events of a bucket will be sorted.
+	 *
+	 */
+	public CalendarPEC( int initCap, Comparator<Event> comp){
+		this.comparator = comp;
+		buckets = newBuckets( Math.max( Integer.highestOneBit(Math.max(initCap, 1)), MIN_BUCKETS ) );
+	}
+
+	/**
+	 *This method retrieves the first element in the PEC and drops the handle kept by its individual.
+	 *The buckets are visited in order of day, starting at the day of the last event retrieved. If
+	 *a whole year goes by without finding an event, the earliest event is searched directly.
+	 *
+	 * @return An Event object.
+	 * @throws NoSuchElementException if the PEC is empty.
+	 */
+	public Event getNextEvent() {
+
+		if(size == 0) throw new NoSuchElementException("The PEC is empty");
+
+		int n = buckets.size();
+		int i = (int) (currentDay % n);
+
+		for(int visited = 0; visited < n; visited++) {
+
+			List<Event> bucket = buckets.get(i);
+			if( !bucket.isEmpty() && dayOf(bucket.get(bucket.size()-1)) <= currentDay )
+				return removeFirst(i);
+
+			i = (i + 1) % n;
+			currentDay++;
+		}
+
+		//no event in the next year, jump straight to the earliest event
+		int first = -1;
+		for(i = 0; i < n; i++) {
+			List<Event> bucket = buckets.get(i);
+			if( !bucket.isEmpty() && (first < 0
+					|| comparator.compare(bucket.get(bucket.size()-1), last(buckets.get(first))) < 0) )
+				first = i;
+		}
+		currentDay = dayOf( last(buckets.get(first)) );
+
+		return removeFirst(first);
+	}
+
+	/**
+	 *This method adds an element to the PEC, in the bucket of its day, and the individual
+	 *associated with it keeps a handle to the event.
+	 *If the input event has a negative timestamp it is not added to the PEC. Such an approach is
+	 *useful when the random time given to an event is posterior to the associated individual's death.
+	 *
+	 * @param ev is the event to be added to the PEC.
+	 *
+	 */
+	public void addEvent(Event ev) {
+		if( ev.getTime() < 0.0 ) return;
+
+		//an event earlier than the last one retrieved moves the calendar back to its day
+		if( ev.getTime() < lastTime ) {
+			lastTime = ev.getTime();
+			currentDay = dayOf(ev);
+		}
+
+		insert(ev);
+		size++;
+
+		if(ev.getInd() != null)
+			ev.getInd().getPendingEvents().add(ev);
+
+		if(size > 2 * buckets.size())
+			resize(2 * buckets.size());
+	}
+
+	/**
+	 *This method removes the events associated with the input Individual from the PEC.
+	 *The events are found through the handles kept by the individual and removed from their buckets.
+	 *
+	 * @param ind is the individual associated with the events to be removed.
+	 *
+	 */
+	public void removeIndEvents(Individual ind) {
+
+		List<Event> pending = ind.getPendingEvents();
+
+		for(Event ev : pending) {
+			if(ev.getPecIndex() < 0) continue;
+
+			List<Event> bucket = buckets.get(ev.getPecIndex());
+			for(int i = 0; i < bucket.size(); i++) {
+				if(bucket.get(i) == ev) {
+					bucket.remove(i);
+					break;
+				}
+			}
+			ev.setPecIndex(-1);
+			size--;
+		}
+		pending.clear();
+
+		if(size < buckets.size() / 2 && buckets.size() > MIN_BUCKETS)
+			resize(buckets.size() / 2);
+	}
+
+	/**
+	 * This method checks if the PEC is empty.
+	 *
+	 * @return A boolean that is true if the PEC is empty and false otherwise.
+	 *
+	 */
+	public boolean isEmptyPEC() {
+		return size == 0;
+	}
+
+	/**
+	 *This method retrieves the number of elements in the PEC.
+	 *
+	 * @return An int with the size of the PEC.
+	 *
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 *This method removes the earliest event of a bucket, which becomes the current bucket.
+	 *
+	 * @param i the index of the bucket.
+	 * @return the earliest event of the bucket.
+	 */
+	Event removeFirst(int i) {
+
+		List<Event> bucket = buckets.get(i);
+		Event ev = bucket.remove(bucket.size()-1);
+		ev.setPecIndex(-1);
+		size--;
+		lastTime = ev.getTime();
+
+		if(ev.getInd() != null) ev.getInd().removePendingEvent(ev);
+
+		if(size < buckets.size() / 2 && buckets.size() > MIN_BUCKETS)
+			resize(buckets.size() / 2);
+
+		return ev;
+	}
+
+	/**
+	 *This method inserts an event in the bucket of its day, keeping the bucket sorted.
+	 *
+	 * @param ev the event to insert.
+	 */
+	void insert(Event ev) {
+
+		int i = (int) (dayOf(ev) % buckets.size());
+		List<Event> bucket = buckets.get(i);
+
+		//find the position of the event, from the earliest to the latest
+		int pos = bucket.size();
+		while(pos > 0 && comparator.compare(bucket.get(pos-1), ev) < 0)
+			pos--;
+
+		bucket.add(pos, ev);
+		ev.setPecIndex(i);
+	}
+
+	/**
+	 *This method changes the number of buckets of the calendar. The width of the buckets is estimated
+	 *again and all the events are moved to their new buckets.
+	 *
+	 * @param n the new number of buckets.
+	 */
+	void resize(int n) {
+
+		List<Event> events = new ArrayList<Event>(size);
+		for(List<Event> bucket : buckets)
+			events.addAll(bucket);
+
+		width = newWidth(events);
+		buckets = newBuckets(n);
+		for(Event ev : events)
+			insert(ev);
+
+		currentDay = (long) (lastTime / width);
+	}
+
+	/**
+	 *This method estimates the width of the buckets as three times the mean time between the
+	 *events at the head of the PEC, ignoring separations that are much larger than the mean.
+	 *
+	 * @param events the events in the PEC.
+	 * @return the new width of the buckets.
+	 */
+	double newWidth(List<Event> events) {
+
+		if(events.size() < 2) return width;
+
+		//keep the earliest events, the latest on top
+		PriorityQueue<Event> sample = new PriorityQueue<Event>(SAMPLE_SIZE + 1, comparator.reversed());
+		for(Event ev : events) {
+			sample.add(ev);
+			if(sample.size() > SAMPLE_SIZE) sample.poll();
+		}
+
+		double[] times = new double[sample.size()];
+		for(int i = times.length - 1; i >= 0; i--)
+			times[i] = sample.poll().getTime();
+
+		double mean = (times[times.length-1] - times[0]) / (times.length - 1);
+
+		double sum = 0;
+		int count = 0;
+		for(int i = 1; i < times.length; i++) {
+			double sep = times[i] - times[i-1];
+			if(sep <= 2 * mean) {
+				sum += sep;
+				count++;
+			}
+		}
+
+		if(count == 0 || sum == 0) return width;
+
+		return 3 * sum / count;
+	}
+
+	/**
+	 *This method computes the day of an event, which defines its bucket.
+	 *
+	 * @param ev the event.
+	 * @return the day of the event.
+	 */
+	long dayOf(Event ev) {
+		return (long) (ev.getTime() / width);
+	}
+
+	/**
+	 *This method retrieves the earliest event of a bucket.
+	 *
+	 * @param bucket a non empty bucket.
+	 * @return the earliest event of the bucket.
+	 */
+	static Event last(List<Event> bucket) {
+		return bucket.get(bucket.size()-1);
+	}
+
+	/**
+	 *This method creates a new set of empty buckets.
+	 *
+	 * @param n the number of buckets.
+	 * @return the list of buckets.
+	 */
+	static List<List<Event>> newBuckets(int n) {
+		List<List<Event>> newBuckets = new ArrayList<List<Event>>(n);
+		for(int i = 0; i < n; i++)
+			newBuckets.add(new ArrayList<Event>(2));
+		return newBuckets;
+	}
+
+	/**
+	 *Redefinition of the toString method in order to print the elements of the PEC.
+	 */
+	public String toString() {
+		List<Event> events = new ArrayList<Event>(size);
+		for(List<Event> bucket : buckets)
+			events.addAll(bucket);
+		events.sort(comparator);
+		return "\nPEC \n" + Arrays.toString(events.toArray());
+	}
+}
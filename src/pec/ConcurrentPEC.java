@@ -0,0 +1,188 @@
+package pec;
+import stochasticSimulation.Event;
+import stochasticSimulation.Individual;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ *The class ConcurrentPEC implements the PEC interface with a concurrent skip list, so that events can be
+ *added, retrieved and removed by several threads at the same time without an external lock.
+ *Ordering is strict: getNextEvent() always returns an event with the smallest timestamp in the PEC at the
+ *moment it takes place, and events with equal timestamps are returned in the order they were added.
+ *The handles to the events of each individual are kept in a concurrent map. Adding an event and removing
+ *the events of the same individual are serialized, so removeIndEvents() removes every event of the individual
+ *added before it and none added after it; operations on different individuals do not block each other.
+ *getSize() and isEmptyPEC() are exact when no other thread is changing the PEC, and only an estimate otherwise.
+ *
+ * @author Manuel Serra
+ */
+public class ConcurrentPEC implements IPEC{
+
+	/**
+	 *  The events waiting to take place, sorted by timestamp and then by order of arrival.
+	*/
+	ConcurrentSkipListSet<Entry> events;
+
+	/**
+	 *  The entries of the events of each individual that are waiting in the PEC.
+	*/
+	ConcurrentHashMap<Individual, List<Entry>> handles;
+
+	/**
+	 *  The order of arrival given to the next event added to the PEC.
+	*/
+	AtomicLong nextSeq = new AtomicLong();
+
+	/**
+	 *  The number of events in the PEC.
+	*/
+	AtomicInteger size = new AtomicInteger();
+
+	/**
+	 *An event in the skip list, together with its order of arrival so that no two entries compare as equal.
+	 */
+	static class Entry {
+
+		/**
+		 *  The event waiting in the PEC.
+		*/
+		final Event ev;
+
+		/**
+		 *  The order of arrival of the event.
+		*/
+		final long seq;
+
+		/**
+		 *Constructor for an Entry.
+		 *
+		 * @param ev is the event.
+		 * @param seq is its order of arrival.
+		 */
+		Entry(Event ev, long seq){
+			this.ev = ev;
+			this.seq = seq;
+		}
+	}
+
+	/**
+	 *Constructor method for a ConcurrentPEC object.
+	 *
+	 * @param initCap is the expected number of individuals with events in the PEC.
+	 * @param comp is the comparator with which the events will be sorted.
+	 *
+	 */
+	public ConcurrentPEC( int initCap, Comparator<Event> comp){
+
+		events = new ConcurrentSkipListSet<Entry>( (a, b) -> {
+			int c = comp.compare(a.ev, b.ev);
+			return c != 0 ? c : Long.compare(a.seq, b.seq);
+		});
+
+		handles = new ConcurrentHashMap<Individual, List<Entry>>( Math.max(initCap, 16) );
+	}
+
+	/**
+	 *This method retrieves and removes the first element in the PEC and drops the handle kept for its individual.
+	 *Since another thread may empty the PEC between a call to isEmptyPEC() and a call to this method,
+	 *threads that share the PEC must be ready for the exception thrown when there are no events left.
+	 *
+	 * @return An Event object.
+	 * @throws NoSuchElementException if the PEC is empty.
+	 */
+	@Override
+	public Event getNextEvent() {
+
+		Entry first = events.pollFirst();
+		if(first == null) throw new NoSuchElementException("The PEC is empty");
+
+		size.decrementAndGet();
+
+		Individual ind = first.ev.getInd();
+		if(ind != null) {
+			handles.computeIfPresent(ind, (k, list) -> {
+				list.remove(first);
+				return list.isEmpty() ? null : list;
+			});
+		}
+		return first.ev;
+	}
+
+	/**
+	 *This method adds an element to the PEC, which is placed in the position corresponding
+	 *to it's order by timestamp. If the input event has a negative timestamp it is not added to the PEC.
+	 *
+	 * @param ev is the event to be added to the PEC.
+	 *
+	 */
+	@Override
+	public void addEvent(Event ev) {
+
+		if( ev.getTime() < 0.0 ) return;
+
+		Entry entry = new Entry( ev, nextSeq.getAndIncrement() );
+		Individual ind = ev.getInd();
+
+		if(ind == null) {
+			events.add(entry);
+			size.incrementAndGet();
+			return;
+		}
+
+		//the event goes in the skip list while the entry of the individual is locked
+		handles.compute(ind, (k, list) -> {
+			if(list == null) list = new ArrayList<Entry>(3);
+			list.add(entry);
+			events.add(entry);
+			size.incrementAndGet();
+			return list;
+		});
+	}
+
+	/**
+	 *This method removes all the events of an individual from the PEC. Each removal takes O(log n) time.
+	 *
+	 * @param ind the individual whose events are to be removed.
+	 *
+	 */
+	@Override
+	public void removeIndEvents(Individual ind) {
+
+		handles.computeIfPresent(ind, (k, list) -> {
+			for(Entry entry : list) {
+				//the event may have been retrieved by another thread in the meantime
+				if(events.remove(entry))
+					size.decrementAndGet();
+			}
+			return null;
+		});
+	}
+
+	/**
+	 *This method checks if the PEC is empty.
+	 *
+	 * @return true if the PEC has no events and false otherwise.
+	 */
+	@Override
+	public boolean isEmptyPEC() {
+		return events.isEmpty();
+	}
+
+	/**
+	 *This method retrieves the number of events in the PEC.
+	 *
+	 * @return the number of events in the PEC.
+	 */
+	@Override
+	public int getSize() {
+		return Math.max(size.get(), 0);
+	}
+}
@@ -2,6 +2,8 @@ package pec;
 import stochasticSimulation.Individual;
 import stochasticSimulation.Event;
 
+import java.util.List;
+
 /**
  * PEC interface. Defines the methods that must be implemented in a PEC
  * States that the PEC keeps objects of type Event and that
@@ -15,6 +17,7 @@ public interface IPEC {
 		 *A method to retrieve the first element in the PEC
 		 *
 		 * @return An Event Object 
+		 * @throws java.util.NoSuchElementException if the PEC is empty
 		 *
 		 */
 		public Event getNextEvent();
@@ -35,4 +38,34 @@ public interface IPEC {
 		 *
 		 */
 		public void removeIndEvents(Individual ind);
+		
+		/**
+		 *A method to remove the events in the PEC associated with many individuals
+		 *at once, as when an epidemic kills them. By default the events of each
+		 *individual are removed in turn, which PECs that must search for the events
+		 *redefine as a single pass over the PEC
+		 *
+		 * @param inds the individuals associated with the events to be removed
+		 *
+		 */
+		public default void removeIndEvents(List<Individual> inds) {
+			for(Individual ind : inds)
+				removeIndEvents(ind);
+		}
+		
+		/**
+		 *A method to check if the PEC has no events left
+		 *
+		 * @return true if the PEC is empty and false otherwise
+		 *
+		 */
+		public boolean isEmptyPEC();
+		
+		/**
+		 *A method to retrieve the number of events in the PEC
+		 *
+		 * @return an int with the size of the PEC
+		 *
+		 */
+		public int getSize();
 }
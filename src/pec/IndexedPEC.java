@@ -0,0 +1,257 @@
+package pec;
+import stochasticSimulation.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+
+/**
+ *The class IndexedPEC implements the PEC interface with an indexed d-ary heap.
+ *Every event keeps its position in the heap and every individual keeps handles to its
+ *pending events, so the events of an individual can be removed without searching the PEC.
+ *Removing the k events of an individual costs O(k log n) instead of the O(n) scan of PEC.
+ *
+ * @author Manuel Serra
+ */
+public class IndexedPEC implements IPEC{
+
+	/**
+	 *  The number of children of each node of the heap. A 4-ary heap is shallower than a binary one
+	 *  and its children are next to each other in memory.
+	*/
+	static final int ARITY = 4;
+
+	/**
+	 *  An Event comparator that compares Events by their timestamp.
+	*/
+	Comparator<Event> comparator;
+
+	/**
+	 *  Array where the heap of the events waiting to take place is stored.
+	*/
+	Event[] heap;
+
+	/**
+	 *  The number of events in the heap.
+	*/
+	int size = 0;
+
+	/**
+	 *Constructor method for an IndexedPEC object.
+	 *
+	 * @param initCap is the initial capacity of the PEC.
+	 * @param comp is the comparator with which the events will be sorted.
+	 *
+	 */
+	public IndexedPEC( int initCap, Comparator<Event> comp){
+		this.comparator = comp;
+		heap = new Event[Math.max(initCap, 1)];
+	}
+
+	/**
+	 *This method retrieves the first element in the PEC and drops the handle kept by its individual.
+	 *
+	 * @return An Event object.
+	 * @throws NoSuchElementException if the PEC is empty.
+	 */
+	public Event getNextEvent() {
+		if(size == 0) throw new NoSuchElementException("The PEC is empty");
+
+		Event first = heap[0];
+		removeAt(0);
+		if(first.getInd() != null) first.getInd().removePendingEvent(first);
+		return first;
+	}
+
+	/**
+	 *This method adds an element to the PEC, which is placed in the position corresponding
+	 *to it's order by timestamp. A handle to the event is kept by the associated individual.
+	 *If the input event has a negative timestamp it is not added to the PEC. Such an approach is
+	 *useful when the random time given to an event is posterior to the associated individual's death.
+	 *
+	 * @param ev is the event to be added to the PEC.
+	 *
+	 */
+	public void addEvent(Event ev) {
+		if( ev.getTime() < 0.0 ) return;
+
+		if(size == heap.length)
+			heap = Arrays.copyOf(heap, 2 * heap.length);
+
+		heap[size] = ev;
+		ev.setPecIndex(size);
+		size++;
+		siftUp(size - 1);
+
+		if(ev.getInd() != null)
+			ev.getInd().getPendingEvents().add(ev);
+	}
+
+	/**
+	 *This method removes the events associated with the input Individual from the PEC.
+	 *The events are found through the handles kept by the individual, so no search is made
+	 *and events of other individuals are never touched.
+	 *
+	 * @param ind is the individual associated with the events to be removed.
+	 *
+	 */
+	public void removeIndEvents(Individual ind) {
+
+		List<Event> pending = ind.getPendingEvents();
+
+		for(Event ev : pending) {
+			if(ev.getPecIndex() >= 0)
+				removeAt(ev.getPecIndex());
+		}
+		pending.clear();
+	}
+
+	/**
+	 *This method removes the events associated with many individuals from the PEC.
+	 *The events are found through the handles and marked as removed, then the events left are
+	 *moved to the start of the heap in a single pass and the heap is rebuilt bottom up, in O(n) time
+	 *instead of O(k log n) for k events.
+	 *
+	 * @param inds are the individuals associated with the events to be removed.
+	 *
+	 */
+	@Override
+	public void removeIndEvents(List<Individual> inds) {
+
+		int removed = 0;
+		for(Individual ind : inds) {
+			List<Event> pending = ind.getPendingEvents();
+			for(Event ev : pending) {
+				if(ev.getPecIndex() >= 0) {
+					ev.setPecIndex(-1);
+					removed++;
+				}
+			}
+			pending.clear();
+		}
+		if(removed == 0) return;
+
+		int kept = 0;
+		for(int i = 0; i < size; i++) {
+			if(heap[i].getPecIndex() >= 0)
+				heap[kept++] = heap[i];
+		}
+		Arrays.fill(heap, kept, size, null);
+		size = kept;
+
+		//rebuild the heap from the last node with children up to the root
+		for(int i = 0; i < size; i++)
+			heap[i].setPecIndex(i);
+		if(size > 1) {
+			for(int i = (size - 2) / ARITY; i >= 0; i--)
+				siftDown(i);
+		}
+	}
+
+	/**
+	 * This method checks if the PEC is empty.
+	 *
+	 * @return A boolean that is true if the PEC is empty and false otherwise.
+	 *
+	 */
+	public boolean isEmptyPEC() {
+		return size == 0;
+	}
+
+	/**
+	 *This method retrieves the number of elements in the PEC.
+	 *
+	 * @return An int with the size of the PEC.
+	 *
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 *This method removes the event in a given position of the heap. The last event
+	 *of the heap takes its place and is moved up or down to restore the heap order.
+	 *
+	 * @param i the position of the event to remove.
+	 */
+	void removeAt(int i) {
+
+		heap[i].setPecIndex(-1);
+		size--;
+
+		if(i == size) {
+			heap[size] = null;
+			return;
+		}
+
+		heap[i] = heap[size];
+		heap[i].setPecIndex(i);
+		heap[size] = null;
+
+		if( i > 0 && comparator.compare(heap[i], heap[(i - 1) / ARITY]) < 0 )
+			siftUp(i);
+		else
+			siftDown(i);
+	}
+
+	/**
+	 *This method moves the event in position i up the heap until its parent is not later than it.
+	 *
+	 * @param i the position of the event to move.
+	 */
+	void siftUp(int i) {
+
+		Event ev = heap[i];
+
+		while(i > 0) {
+			int parent = (i - 1) / ARITY;
+			if( comparator.compare(ev, heap[parent]) >= 0 ) break;
+
+			heap[i] = heap[parent];
+			heap[i].setPecIndex(i);
+			i = parent;
+		}
+		heap[i] = ev;
+		ev.setPecIndex(i);
+	}
+
+	/**
+	 *This method moves the event in position i down the heap until none of its children is earlier than it.
+	 *
+	 * @param i the position of the event to move.
+	 */
+	void siftDown(int i) {
+
+		Event ev = heap[i];
+
+		while(true) {
+			int first = ARITY * i + 1;
+			if(first >= size) break;
+
+			//find the earliest child
+			int min = first;
+			int last = Math.min(first + ARITY, size);
+			for(int c = first + 1; c < last; c++) {
+				if( comparator.compare(heap[c], heap[min]) < 0 )
+					min = c;
+			}
+
+			if( comparator.compare(heap[min], ev) >= 0 ) break;
+
+			heap[i] = heap[min];
+			heap[i].setPecIndex(i);
+			i = min;
+		}
+		heap[i] = ev;
+		ev.setPecIndex(i);
+	}
+
+	/**
+	 *Redefinition of the toString method in order to print the elements of the PEC.
+	 */
+	public String toString() {
+		return "\nPEC \n" + Arrays.toString(Arrays.copyOf(heap, size));
+	}
+}
@@ -2,14 +2,21 @@ package pec;
 import stochasticSimulation.*;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.PriorityQueue;
+import java.util.Set;
 
 
 /**
  *The class PEC implements the PEC interface. It stores and manages the events waiting to take place, by
  *offering an API to add, get and remove events from the PEC.
+ *The events of an individual can be removed eagerly, by searching the PEC, or lazily. In lazy mode the individual
+ *is marked dead and its events are left in the PEC as tombstones, which are dropped when they reach the head
+ *of the PEC. When the tombstones exceed a fraction of the PEC it is compacted in a single pass.
  *
  * @author Manuel Serra
  */
@@ -24,6 +31,21 @@ public class PEC implements IPEC{
 	 *  PriorityQueue of Events where the events waiting to take place are stored in order of timestamp.
 	*/
 	PriorityQueue<Event> pec = new PriorityQueue<>();
+	
+	/**
+	 *  The fraction of tombstones in the PEC above which it is compacted, in lazy mode.
+	*/
+	static final double MAX_GARBAGE = 0.5;
+	
+	/**
+	 *  A boolean that tells whether events are removed lazily (true) or eagerly (false).
+	*/
+	boolean lazy = false;
+	
+	/**
+	 *  The number of tombstones in the PEC, that is, events of dead individuals that are still stored.
+	*/
+	int garbage = 0;
 
 	/**
 	 *Constructor method for a PEC object. A Priority Queue is instantiated
@@ -38,13 +60,37 @@ public class PEC implements IPEC{
 		pec = new PriorityQueue<Event>(initCap, comparator);
 	}
 	
+	/**
+	 *Constructor method for a PEC object that allows the lazy removal of events to be chosen.
+	 *
+	 * @param initCap is the initial capacity of the PEC.
+	 * @param comp is the comparator with which the events will be sorted.
+	 * @param lazy is true if the events of an individual are to be removed lazily.
+	 *
+	 */
+	public PEC( int initCap, Comparator<Event> comp, boolean lazy){
+		this(initCap, comp);
+		this.lazy = lazy;
+	}
+	
 	/**
 	 *This method retrieves the first element in the PEC.
 	 *
 	 * @return An Event object. 
 	 */
 	public Event getNextEvent() {
-		return pec.remove();	
+		
+		Event ev = pec.remove();
+		if(!lazy) return ev;
+		
+		//drop the tombstones found at the head of the PEC
+		while( isTombstone(ev) ) {
+			if( !ev.getInd().removePendingEvent(ev) ) garbage--;
+			ev = pec.remove();
+		}
+		if(ev.getInd() != null) ev.getInd().removePendingEvent(ev);
+		
+		return ev;
 	}
 	
 	/**
@@ -58,6 +104,12 @@ public class PEC implements IPEC{
 	 */
 	public void addEvent(Event ev) {
 		if( ev.getTime() < 0.0 ) return;
+		
+		if(lazy && ev.getInd() != null) {
+			//events of dead individuals would be tombstones from the start
+			if( !ev.getInd().isAlive() ) return;
+			ev.getInd().getPendingEvents().add(ev);
+		}
 		pec.add(ev);
 	}
 	
@@ -71,11 +123,11 @@ public class PEC implements IPEC{
 	 *
 	 */
 	public boolean isEmptyPEC() {
-		return pec.isEmpty();
+		return pec.size() == garbage;
 	}
 	
 	/**
-	 *This method retrieves the number of elements in the PEC.
+	 *This method retrieves the number of elements in the PEC, not counting tombstones.
 	 *It allows the PEC to be re-implemented using a different data structure without the need to change the code where the 
 	 *PEC is used, as long as the API is followed.
 	 *
@@ -83,28 +135,87 @@ public class PEC implements IPEC{
 	 *
 	 */
 	public int getSize() {
-		return pec.size();
+		return pec.size() - garbage;
 	}
 	
 	/**
 	 *This method removes the events associated with the input Individual from the PEC.
 	 *Since the PEC is implemented as a PriorityQueue an iterator is used. The events
-	 *to remove are identified by the ID of the individual associated with them.
+	 *to remove are identified by the individual associated with them. The ID is not used
+	 *since it can be given again to another individual after an epidemic.
 	 *
 	 * @param ind is the individual associated with the events to be removed.
 	 *
 	 */
 	public void removeIndEvents(Individual ind) {	
 		
+		if(lazy) {
+			removeIndEventsLazy(ind);
+			return;
+		}
+		
 		Iterator<Event> iter = pec.iterator();
 		while (iter.hasNext()) {
 			Event ev = iter.next();
 			
-			if(ev.getIndID() == ind.getID() )
+			if(ev.getInd() == ind )
 				iter.remove();
 		}
 	}
 	
+	/**
+	 *This method removes the events associated with many individuals from the PEC.
+	 *Instead of searching the PEC once for each individual, the events of all of them are removed
+	 *in a single pass, after which the heap is rebuilt in linear time. In lazy mode the individuals
+	 *are marked dead and the PEC is compacted at most once.
+	 *
+	 * @param inds are the individuals associated with the events to be removed.
+	 */
+	@Override
+	public void removeIndEvents(List<Individual> inds) {
+		
+		if(lazy) {
+			for(Individual ind : inds)
+				removeIndEventsLazy(ind);
+			return;
+		}
+		
+		Set<Individual> victims = Collections.newSetFromMap( new IdentityHashMap<>( 2 * inds.size() ) );
+		victims.addAll(inds);
+		pec.removeIf( ev -> ev.getInd() != null && victims.contains( ev.getInd() ) );
+	}
+	
+	/**
+	 *This method removes the events associated with the input Individual lazily. The individual is
+	 *marked dead, which turns its events into tombstones, and the number of tombstones is updated using
+	 *the handles to the pending events of the individual. If the tombstones exceed MAX_GARBAGE of the PEC,
+	 *they are all removed in a single pass over the PEC, after which the heap is rebuilt.
+	 *
+	 * @param ind is the individual associated with the events to be removed.
+	 */
+	void removeIndEventsLazy(Individual ind) {
+		
+		ind.markDead();
+		garbage += ind.getPendingEvents().size();
+		ind.getPendingEvents().clear();
+		
+		//compact the PEC
+		if( garbage > MAX_GARBAGE * pec.size() ) {
+			pec.removeIf( ev -> isTombstone(ev) );
+			garbage = 0;
+		}
+	}
+	
+	/**
+	 *This method tells whether an event is a tombstone, that is, whether its individual has died.
+	 *
+	 * @param ev the event to check.
+	 * @return true if the event is a tombstone and false otherwise.
+	 */
+	boolean isTombstone(Event ev) {
+		return ev.getInd() != null && !ev.getInd().isAlive();
+	}
+	
 	/**
 	 *Redefinition of the toString method in order to print the elements of the PEC
 	 *implemented as a Priority Queue.
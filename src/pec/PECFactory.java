@@ -0,0 +1,59 @@
+package pec;
+import stochasticSimulation.Event;
+
+import java.util.Comparator;
+
+
+/**
+ *The class PECFactory creates the implementation of the PEC interface chosen by name, so that
+ *the PEC of a simulation can be selected in the input file or in the command line.
+ *The available implementations are:
+ * binary - PEC, a binary heap with eager removal of events;
+ * lazy - PEC, a binary heap with lazy removal of events;
+ * indexed - IndexedPEC, an indexed d-ary heap (default);
+ * calendar - CalendarPEC, a calendar queue;
+ * concurrent - ConcurrentPEC, a thread safe skip list.
+ *
+ * @author Manuel Serra
+ */
+public class PECFactory {
+
+	/**
+	 *  The name of the PEC used when none is chosen.
+	*/
+	public static final String DEFAULT = "indexed";
+
+	/**
+	 *  The names of the PEC implementations that can be created.
+	*/
+	public static final String[] TYPES = {"binary", "lazy", "indexed", "calendar", "concurrent"};
+
+	/**
+	 *This method creates a new PEC of the given type.
+	 *
+	 * @param type the name of the PEC implementation, or null for the default one.
+	 * @param initCap is the initial capacity of the PEC.
+	 * @param comp is the comparator with which the events will be sorted.
+	 * @return the new PEC.
+	 * @throws IllegalArgumentException if there is no PEC with the given name.
+	 */
+	public static IPEC newPEC(String type, int initCap, Comparator<Event> comp) {
+
+		if(type == null) type = DEFAULT;
+
+		switch(type.toLowerCase()) {
+			case "binary":
+				return new PEC(initCap, comp);
+			case "lazy":
+				return new PEC(initCap, comp, true);
+			case "indexed":
+				return new IndexedPEC(initCap, comp);
+			case "calendar":
+				return new CalendarPEC(initCap, comp);
+			case "concurrent":
+				return new ConcurrentPEC(initCap, comp);
+			default:
+				throw new IllegalArgumentException("Unknown PEC type: " + type);
+		}
+	}
+}
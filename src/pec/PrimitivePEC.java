@@ -0,0 +1,306 @@
+package pec;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+
+/**
+ *The class PrimitivePEC is a pending event container that keeps no Event objects. Each event is
+ *a (time, slot, kind) triple, where the slot identifies the individual of the event and the kind
+ *tells what happens to it. The triples are stored in a d-ary heap laid out as parallel primitive arrays,
+ *so adding and getting events allocate nothing and the heap is compact in memory.
+ *An individual may have at most one pending event of each kind, which allows the position of every
+ *event in the heap to be indexed by slot and kind, and the events of an individual to be removed
+ *without searching the PEC.
+ *
+ * @author Manuel Serra
+ */
+public class PrimitivePEC {
+
+	/**
+	 *  The name under which the PrimitivePEC is selected.
+	*/
+	public static final String NAME = "primitive";
+
+	/**
+	 *  The number of children of each node of the heap.
+	*/
+	static final int ARITY = 4;
+
+	/**
+	 *  The timestamps of the events in the heap.
+	*/
+	double[] times;
+
+	/**
+	 *  The slots of the individuals of the events in the heap.
+	*/
+	int[] slots;
+
+	/**
+	 *  The kinds of the events in the heap.
+	*/
+	byte[] kinds;
+
+	/**
+	 *  The position in the heap of the event of each slot and kind, -1 if there is none.
+	*/
+	int[] positions;
+
+	/**
+	 *  The number of different kinds of events.
+	*/
+	final int nKinds;
+
+	/**
+	 *  The number of events in the heap.
+	*/
+	int size = 0;
+
+	/**
+	 *Constructor method for a PrimitivePEC object.
+	 *
+	 * @param initCap is the initial capacity of the PEC.
+	 * @param nKinds is the number of different kinds of events, which are numbered from 0.
+	 *
+	 */
+	public PrimitivePEC( int initCap, int nKinds){
+		this.nKinds = nKinds;
+		initCap = Math.max(initCap, 1);
+		times = new double[initCap];
+		slots = new int[initCap];
+		kinds = new byte[initCap];
+		positions = new int[initCap];
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 *This method adds an event to the PEC.
+	 *If the timestamp is negative the event is not added to the PEC. Such an approach is
+	 *useful when the random time given to an event is posterior to the associated individual's death.
+	 *
+	 * @param time the timestamp of the event.
+	 * @param slot the slot of the individual of the event.
+	 * @param kind the kind of the event.
+	 */
+	public void addEvent(double time, int slot, byte kind) {
+		if( time < 0.0 ) return;
+
+		if(size == times.length) {
+			times = Arrays.copyOf(times, 2 * size);
+			slots = Arrays.copyOf(slots, 2 * size);
+			kinds = Arrays.copyOf(kinds, 2 * size);
+		}
+		int key = slot * nKinds + kind;
+		if(key >= positions.length) {
+			int oldLength = positions.length;
+			positions = Arrays.copyOf(positions, Math.max(2 * oldLength, key + 1));
+			Arrays.fill(positions, oldLength, positions.length, -1);
+		}
+
+		times[size] = time;
+		slots[size] = slot;
+		kinds[size] = kind;
+		size++;
+		siftUp(size - 1);
+	}
+
+	/**
+	 *Getter for the timestamp of the first event in the PEC.
+	 *
+	 * @return the timestamp of the first event.
+	 * @throws NoSuchElementException if the PEC is empty.
+	 */
+	public double getFirstTime() {
+		checkNotEmpty();
+		return times[0];
+	}
+
+	/**
+	 *Getter for the slot of the individual of the first event in the PEC.
+	 *
+	 * @return the slot of the first event.
+	 * @throws NoSuchElementException if the PEC is empty.
+	 */
+	public int getFirstSlot() {
+		checkNotEmpty();
+		return slots[0];
+	}
+
+	/**
+	 *Getter for the kind of the first event in the PEC.
+	 *
+	 * @return the kind of the first event.
+	 * @throws NoSuchElementException if the PEC is empty.
+	 */
+	public byte getFirstKind() {
+		checkNotEmpty();
+		return kinds[0];
+	}
+
+	/**
+	 *This method removes the first event of the PEC. Its fields must be read before with
+	 *getFirstTime(), getFirstSlot() and getFirstKind().
+	 *
+	 * @throws NoSuchElementException if the PEC is empty.
+	 */
+	public void removeFirst() {
+		checkNotEmpty();
+		removeAt(0);
+	}
+
+	/**
+	 *This method checks that the PEC has a first event, as the other PECs do before they return it.
+	 *
+	 * @throws NoSuchElementException if the PEC is empty.
+	 */
+	private void checkNotEmpty() {
+		if(size == 0) throw new NoSuchElementException("The PEC is empty");
+	}
+
+	/**
+	 *This method removes the events of an individual from the PEC.
+	 *
+	 * @param slot the slot of the individual.
+	 */
+	public void removeSlotEvents(int slot) {
+		for(int kind = 0; kind < nKinds; kind++) {
+			int key = slot * nKinds + kind;
+			if(key < positions.length && positions[key] >= 0)
+				removeAt(positions[key]);
+		}
+	}
+
+	/**
+	 * This method checks if the PEC is empty.
+	 *
+	 * @return A boolean that is true if the PEC is empty and false otherwise.
+	 */
+	public boolean isEmptyPEC() {
+		return size == 0;
+	}
+
+	/**
+	 *This method retrieves the number of events in the PEC.
+	 *
+	 * @return An int with the size of the PEC.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 *This method removes the event in a given position of the heap. The last event
+	 *of the heap takes its place and is moved up or down to restore the heap order.
+	 *
+	 * @param i the position of the event to remove.
+	 */
+	void removeAt(int i) {
+
+		positions[slots[i] * nKinds + kinds[i]] = -1;
+		size--;
+
+		if(i == size) return;
+
+		times[i] = times[size];
+		slots[i] = slots[size];
+		kinds[i] = kinds[size];
+
+		if( i > 0 && times[i] < times[(i - 1) / ARITY] )
+			siftUp(i);
+		else
+			siftDown(i);
+	}
+
+	/**
+	 *This method moves the event in position i up the heap until its parent is not later than it.
+	 *
+	 * @param i the position of the event to move.
+	 */
+	void siftUp(int i) {
+
+		double time = times[i];
+		int slot = slots[i];
+		byte kind = kinds[i];
+
+		while(i > 0) {
+			int parent = (i - 1) / ARITY;
+			if( time >= times[parent] ) break;
+
+			move(parent, i);
+			i = parent;
+		}
+		set(i, time, slot, kind);
+	}
+
+	/**
+	 *This method moves the event in position i down the heap until none of its children is earlier than it.
+	 *
+	 * @param i the position of the event to move.
+	 */
+	void siftDown(int i) {
+
+		double time = times[i];
+		int slot = slots[i];
+		byte kind = kinds[i];
+
+		while(true) {
+			int first = ARITY * i + 1;
+			if(first >= size) break;
+
+			//find the earliest child
+			int min = first;
+			int last = Math.min(first + ARITY, size);
+			for(int c = first + 1; c < last; c++) {
+				if( times[c] < times[min] )
+					min = c;
+			}
+
+			if( times[min] >= time ) break;
+
+			move(min, i);
+			i = min;
+		}
+		set(i, time, slot, kind);
+	}
+
+	/**
+	 *This method copies the event in one position of the heap to another position.
+	 *
+	 * @param from the position of the event.
+	 * @param to the new position of the event.
+	 */
+	void move(int from, int to) {
+		times[to] = times[from];
+		slots[to] = slots[from];
+		kinds[to] = kinds[from];
+		positions[slots[to] * nKinds + kinds[to]] = to;
+	}
+
+	/**
+	 *This method places an event in a position of the heap.
+	 *
+	 * @param i the position of the event.
+	 * @param time the timestamp of the event.
+	 * @param slot the slot of the individual of the event.
+	 * @param kind the kind of the event.
+	 */
+	void set(int i, double time, int slot, byte kind) {
+		times[i] = time;
+		slots[i] = slot;
+		kinds[i] = kind;
+		positions[slot * nKinds + kind] = i;
+	}
+
+	/**
+	 *Redefinition of the toString method in order to print the events of the PEC.
+	 */
+	public String toString() {
+		StringBuilder sb = new StringBuilder("\nPEC \n[");
+		for(int i = 0; i < size; i++) {
+			if(i > 0) sb.append(", ");
+			sb.append("slot: " + slots[i] + "; time: " + times[i] + "; kind: " + kinds[i]);
+		}
+		return sb.append("]").toString();
+	}
+}
@@ -0,0 +1,213 @@
+package pec;
+import stochasticSimulation.Event;
+import stochasticSimulation.Individual;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ *The class RecordingPEC wraps another PEC and writes every addEvent(), getNextEvent() and removeIndEvents()
+ *call to a binary trace file, so that the same stream of operations can later be replayed against any PEC.
+ *The trace starts with the MAGIC number and the VERSION, followed by one record per call:
+ * ADD and NEXT - the operation byte, the key of the individual (-1 for none) and the time of the event;
+ * REMOVE - the operation byte and the key of the individual;
+ * REMOVE_ALL - the operation byte, the number of individuals and the key of each of them, for a single call
+ * that removes the events of many individuals at once.
+ *Individuals are identified by keys given in the order they first appear, since their ids may change during
+ *a simulation. Events with negative times are not recorded, as no PEC keeps them.
+ *
+ * @author Manuel Serra
+ */
+public class RecordingPEC implements IPEC, Closeable{
+
+	/**
+	 *  The number found at the start of every trace file.
+	*/
+	public static final int MAGIC = 0x50454354;
+
+	/**
+	 *  The version of the format of the trace.
+	*/
+	public static final int VERSION = 2;
+
+	/**
+	 *  The operation byte of an addEvent() call.
+	*/
+	public static final byte ADD = 0;
+
+	/**
+	 *  The operation byte of a getNextEvent() call.
+	*/
+	public static final byte NEXT = 1;
+
+	/**
+	 *  The operation byte of a removeIndEvents() call.
+	*/
+	public static final byte REMOVE = 2;
+
+	/**
+	 *  The operation byte of a removeIndEvents() call for many individuals at once. Added in version 2.
+	*/
+	public static final byte REMOVE_ALL = 3;
+
+	/**
+	 *  The PEC that keeps the events.
+	*/
+	IPEC pec;
+
+	/**
+	 *  The stream where the trace is written.
+	*/
+	DataOutputStream out;
+
+	/**
+	 *  The key of each individual seen so far. Dead individuals are forgotten with the garbage collector.
+	*/
+	Map<Individual, Integer> keys = new WeakHashMap<Individual, Integer>();
+
+	/**
+	 *  The key given to the next individual seen.
+	*/
+	int nextKey = 0;
+
+	/**
+	 *Constructor method for a RecordingPEC object.
+	 *
+	 * @param pec is the PEC whose calls are recorded.
+	 * @param file is the name of the trace file, which is overwritten.
+	 * @throws UncheckedIOException if the trace file can not be written.
+	 */
+	public RecordingPEC( IPEC pec, String file){
+		this.pec = pec;
+		try {
+			out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream(file), 1 << 16 ) );
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 *This method retrieves the first element in the wrapped PEC and records it.
+	 *
+	 * @return An Event object.
+	 */
+	public Event getNextEvent() {
+		Event ev = pec.getNextEvent();
+		record(NEXT, ev.getInd(), ev.getTime());
+		return ev;
+	}
+
+	/**
+	 *This method adds an element to the wrapped PEC and records it.
+	 *
+	 * @param ev is the event to be added to the PEC.
+	 */
+	public void addEvent(Event ev) {
+		if(ev.getTime() >= 0.0) record(ADD, ev.getInd(), ev.getTime());
+		pec.addEvent(ev);
+	}
+
+	/**
+	 *This method removes the events of an individual from the wrapped PEC and records it.
+	 *
+	 * @param ind the individual whose events are to be removed.
+	 */
+	public void removeIndEvents(Individual ind) {
+		try {
+			out.writeByte(REMOVE);
+			out.writeInt(key(ind));
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		pec.removeIndEvents(ind);
+	}
+
+	/**
+	 *This method removes the events of many individuals from the wrapped PEC at once, and records
+	 *it as a single call, so that it is replayed as one.
+	 *
+	 * @param inds the individuals whose events are to be removed.
+	 */
+	@Override
+	public void removeIndEvents(List<Individual> inds) {
+		try {
+			out.writeByte(REMOVE_ALL);
+			out.writeInt(inds.size());
+			for(Individual ind : inds)
+				out.writeInt(key(ind));
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		pec.removeIndEvents(inds);
+	}
+
+	/**
+	 *This method checks if the wrapped PEC is empty.
+	 *
+	 * @return true if the PEC is empty and false otherwise.
+	 */
+	public boolean isEmptyPEC() {
+		return pec.isEmptyPEC();
+	}
+
+	/**
+	 *This method retrieves the number of events in the wrapped PEC.
+	 *
+	 * @return the number of events in the PEC.
+	 */
+	public int getSize() {
+		return pec.getSize();
+	}
+
+	/**
+	 *This method writes what is left of the trace to the file and closes it.
+	 *
+	 * @throws IOException if the trace file can not be written.
+	 */
+	public void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 *This method writes the record of an addition or retrieval of an event.
+	 *
+	 * @param op is the operation byte.
+	 * @param ind is the individual of the event.
+	 * @param time is the time of the event.
+	 */
+	void record(byte op, Individual ind, double time) {
+		try {
+			out.writeByte(op);
+			out.writeInt(key(ind));
+			out.writeDouble(time);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 *This method retrieves the key of an individual, giving it a new one if it was not seen before.
+	 *
+	 * @param ind is the individual.
+	 * @return the key of the individual, or -1 if there is no individual.
+	 */
+	int key(Individual ind) {
+		if(ind == null) return -1;
+		Integer key = keys.get(ind);
+		if(key == null) {
+			key = nextKey++;
+			keys.put(ind, key);
+		}
+		return key;
+	}
+}
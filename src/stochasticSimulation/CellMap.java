@@ -0,0 +1,126 @@
+package stochasticSimulation;
+
+import java.util.Arrays;
+
+/**
+ * The CellMap class maps cells of the grid, given by their indices, to int values, in an open addressing hash
+ * table with linear probing. It takes space proportional to the number of cells in it, instead of to the size of
+ * the grid. Cells are never removed one by one, so the table holds no deleted entries: the map is only emptied
+ * at once, with clear().
+ *
+ * @author Manuel Serra
+ */
+class CellMap {
+
+	/**
+	 * The key of an empty position of the table. Cell indices are never negative.
+	 */
+	static final int EMPTY = -1;
+
+	/**
+	 * The cells of the hash table, whose length is a power of two.
+	 */
+	protected int[] keys;
+	/**
+	 * The value of the cell in the same position of keys.
+	 */
+	protected int[] values;
+	/**
+	 * The number of cells in the map.
+	 */
+	protected int size = 0;
+
+	/**
+	 * Constructor for an empty CellMap.
+	 * @param expected the number of cells the map is expected to hold.
+	 */
+	CellMap(int expected) {
+		int capacity = 8;
+		while(capacity < 2 * expected)
+			capacity *= 2;
+
+		keys = new int[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	/**
+	 * This method retrieves the value of a cell.
+	 * @param cell the index of the cell.
+	 * @return the value of the cell, or -1 if the cell is not in the map.
+	 */
+	int get(int cell) {
+		int mask = keys.length - 1;
+		for(int i = hash(cell) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+			if(keys[i] == cell) return values[i];
+		}
+		return -1;
+	}
+
+	/**
+	 * This method sets the value of a cell, adding the cell to the map if needed and growing the table when
+	 * it gets half full.
+	 * @param cell the index of the cell.
+	 * @param value the value of the cell.
+	 */
+	void put(int cell, int value) {
+
+		if(2 * (size + 1) > keys.length) grow();
+
+		int mask = keys.length - 1;
+		int i = hash(cell) & mask;
+		while(keys[i] != EMPTY) {
+			if(keys[i] == cell) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = cell;
+		values[i] = value;
+		size++;
+	}
+
+	/**
+	 * This method removes all the cells from the map, keeping the table.
+	 */
+	void clear() {
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+	}
+
+	/**
+	 * This method retrieves the number of cells in the map.
+	 * @return the size of the map.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * This method doubles the size of the table and places the cells again.
+	 */
+	protected void grow() {
+
+		int[] oldKeys = keys, oldValues = values;
+		keys = new int[2 * oldKeys.length];
+		values = new int[keys.length];
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+		}
+	}
+
+	/**
+	 * This method spreads the bits of a cell index, so that cells that are close in the grid do not
+	 * fall in the same cluster of the table.
+	 * @param cell the index of the cell.
+	 * @return the hash of the cell.
+	 */
+	static int hash(int cell) {
+		int h = cell * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,84 @@
+package stochasticSimulation;
+
+/**
+ * The class Clock is a subclass of StochasticEvent that stands for all the events of an individual.
+ * The individual keeps the times of its next death, move and reproduction, and its Clock is the only
+ * event it has in the PEC, with the time of the earliest of the three. When the Clock is simulated the earliest event
+ * takes place, its next time is drawn and the Clock goes back to the PEC with the new earliest time.
+ * The times are drawn in the same order and with the same distributions as the Death, Move and Reproduction events,
+ * so the simulation behaves in the same way with a PEC three times smaller.
+ *
+ * @author Manuel Serra
+ */
+class Clock extends StochasticEvent {
+
+	/**
+	 * Constructor for the Clock of a new individual. The death, first move and first reproduction
+	 * of the individual are drawn.
+	 * @param ind the individual that keeps the clock.
+	 */
+	Clock(Individual ind){
+
+		type = "clock";
+		this.ind = ind;
+
+		start( ind );
+		time = ind.nextTime();
+	}
+
+	/**
+	 * This method draws the death, first move and first reproduction of a new individual.
+	 * @param ind the new individual.
+	 */
+	static void start(Individual ind) {
+		Death.newTime( ind );
+		ind.moveTime = Move.newTime( ind );
+		ind.reprTime = Reproduction.newTime( ind );
+	}
+
+	/**
+	 * This method makes the earliest event of an individual take place, like the simulateEvent() of the
+	 * corresponding Death, Move or Reproduction would, and draws the next time of that kind of event.
+	 * @param ind the individual whose event takes place.
+	 * @return the child of the individual if it reproduced and null otherwise.
+	 */
+	static Individual tick(Individual ind) {
+
+		switch( ind.nextKind() ) {
+
+			case DEATH:
+				sim.pop.removeInd( ind );
+				return null;
+
+			case MOVE:
+				ind.moveTime = Move.newTime( ind );
+				ind.pop.grid.step( ind );
+				ind.update();
+				return null;
+
+			default:
+				ind.reprTime = Reproduction.newTime( ind );
+				return ind.makeChild();
+		}
+	}
+
+	/**
+	 * When a Clock is simulated the earliest event of the individual takes place. The clock of a new child
+	 * is added to the PEC and, if the individual is still alive, its Clock goes back to the PEC with the time of
+	 * its next event.
+	 */
+	public void simulateEvent(){
+
+		StochasticSimulation.eventCounter++;
+
+		Individual child = tick( ind );
+
+		if(child != null)
+			sim.addEvent( new Clock( child ) );
+
+		if(ind.isAlive()) {
+			time = ind.nextTime();
+			sim.addEvent( this );
+		}
+	}
+}
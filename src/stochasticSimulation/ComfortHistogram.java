@@ -0,0 +1,100 @@
+package stochasticSimulation;
+
+/**
+ * The ComfortHistogram class keeps the distribution of the comfort of the individuals alive in a Population.
+ * The range of the comfort, [0, 1], is divided in BUCKETS buckets of equal width, and the number of individuals
+ * in each bucket is kept in a FenwickTree, so an individual is added, removed or moved to another bucket, and
+ * the quantiles and ranks of the distribution are found, in O(log BUCKETS) time, without scanning the population.
+ * The answers are exact up to the width of a bucket.
+ *
+ * @author Manuel Serra
+ */
+class ComfortHistogram {
+
+	/**
+	 * The number of buckets of the histogram.
+	 */
+	static final int BUCKETS = 1024;
+
+	/**
+	 * The number of individuals in each bucket.
+	 */
+	protected final FenwickTree counts = new FenwickTree(BUCKETS);
+	/**
+	 * The number of individuals in the histogram.
+	 */
+	protected int size = 0;
+
+	/**
+	 * This method adds an individual with a given comfort to the histogram.
+	 * @param comfort the comfort of the individual.
+	 */
+	void add(double comfort) {
+		int b = bucket(comfort);
+		counts.set(b, counts.get(b) + 1);
+		size++;
+	}
+
+	/**
+	 * This method removes an individual with a given comfort from the histogram.
+	 * @param comfort the comfort with which the individual was added.
+	 */
+	void remove(double comfort) {
+		int b = bucket(comfort);
+		counts.set(b, counts.get(b) - 1);
+		size--;
+	}
+
+	/**
+	 * This method moves an individual whose comfort changed to the bucket of its new comfort.
+	 * @param oldComfort the comfort with which the individual was added.
+	 * @param newComfort the new comfort of the individual.
+	 */
+	void update(double oldComfort, double newComfort) {
+		if(bucket(oldComfort) == bucket(newComfort)) return;
+		remove(oldComfort);
+		add(newComfort);
+	}
+
+	/**
+	 * This method retrieves the number of individuals in the histogram.
+	 * @return the size of the histogram.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * This method finds a quantile of the comfort, such as the median for q = 0.5.
+	 * @param q the fraction of the individuals whose comfort is at most the quantile, between 0 and 1.
+	 * @return the middle of the bucket of the quantile, or 0 if the histogram is empty.
+	 */
+	double quantile(double q) {
+
+		if(size == 0) return 0;
+
+		//the rank of the quantile, from 1 to size
+		int rank = Math.max( 1, Math.min( size, (int) Math.ceil(q * size) ) );
+		int b = counts.find(rank - 1);
+		return (b + 0.5) / BUCKETS;
+	}
+
+	/**
+	 * This method counts the individuals whose comfort is at least a given threshold.
+	 * @param threshold the threshold of the comfort.
+	 * @return the number of individuals in the bucket of the threshold and above.
+	 */
+	int countAtLeast(double threshold) {
+		return size - (int) counts.sum( bucket(threshold) );
+	}
+
+	/**
+	 * This method finds the bucket of a comfort.
+	 * @param comfort the comfort, between 0 and 1.
+	 * @return the index of the bucket.
+	 */
+	static int bucket(double comfort) {
+		int b = (int) (comfort * BUCKETS);
+		return Math.max( 0, Math.min( BUCKETS - 1, b ) );
+	}
+}
@@ -10,20 +10,37 @@ package stochasticSimulation;
 class Death extends StochasticEvent{
 	
 	/**
-	 * Constructor of a Death event.
-	 * It defines the fields inherited from the superclass and computes a time for the event based on an exponential distribution,
-	 * adding to the current time of the simulation.
-	 * The time of death is then 'stamped' in the individual associated with the event.
-	 * @param ind is the individual to be associated with the death event.
+	 * Constructor of a Death event. Deaths are created by the EventPool of the simulation and
+	 * associated with an individual by init().
 	 */
-	Death(Individual ind){
+	Death(){
 		type = "death";
+	}
+	
+	/**
+	 * This method (re)initializes a Death, associating it with an Individual and with the time of death,
+	 * computed by newTime().
+	 * @param ind is the individual to be associated with the death event.
+	 * @param time the time of death.
+	 */
+	void init(Individual ind, double time){
 		this.ind = ind;
+		this.time = time;
+	}
+	
+	/**
+	 * This method computes the time of death of an individual by adding the currentTime of the simulation
+	 * with a number drawn from an exponential distribution. The time of death is 'stamped' in the individual.
+	 * @param ind is the individual that will die.
+	 * @return the time of death of the individual.
+	 */
+	static double newTime( Individual ind ) {
 		
-		time = sim.currentTime + 
-				StochasticEvent.expRandom( (1 - Math.log( 1 - this.ind.comfort)) * sim.deathParam );
+		double time = sim.currentTime + 
+				StochasticEvent.expRandom( (1 - Math.log( 1 - ind.comfort)) * sim.deathParam );
 		
 		ind.deathTime = time; //set the individual's time of death
+		return time;
 	}
 	
 	/**
@@ -11,7 +11,10 @@ public abstract class DeterministicEvent implements Event{
 	 * The timestamp of the event.
 	 */
 	double time;
-
+	/**
+	 * The position of the event in the PEC where it is waiting, or -1 if it is not in an indexed PEC.
+	 */
+	int pecIndex = -1;
 	
 	/**
 	 * Leaves the implementation of the simulateEvent method open and required for the creator of 
@@ -28,4 +31,20 @@ public abstract class DeterministicEvent implements Event{
 	public double getTime() {
 		return time;
 	}
+	
+	/**
+	 * Getter for the position of the event in the PEC.
+	 * @return an int with the position of the event in the PEC, -1 if it isn't in one.
+	 */
+	public int getPecIndex() {
+		return pecIndex;
+	}
+	
+	/**
+	 * Setter for the position of the event in the PEC. Only to be used by the PEC.
+	 * @param index the new position of the event in the PEC.
+	 */
+	public void setPecIndex(int index) {
+		pecIndex = index;
+	}
 }
@@ -1,8 +1,9 @@
 package stochasticSimulation;
 
-import java.util.Comparator;
-
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * An epidemic is a StochasticEvent Subclass. It creates an epidemic in which a population is renovated.
@@ -13,14 +14,14 @@ import java.util.Iterator;
 class Epidemic extends StochasticEvent{
 	
 	/**
-	 *  Population where the epidemic takes place.
+	 *  The number of individuals with the best comfort that always survive.
 	*/
-	protected Population pop;
+	static final int FITTEST = 5;
 	
 	/**
-	 *  Comparator between individuals by their comfort, to decide the 5 fittest.
+	 *  Population where the epidemic takes place.
 	*/
-	protected Comparator<Individual> comparator = new IndividualComparator();
+	protected Population pop;
 	
 	/**
 	 * Constructor for an Epidemic.
@@ -38,47 +39,105 @@ class Epidemic extends StochasticEvent{
 	
 	
 	/**
-	 * The simulateEvent() of an epidemic starts by sorting the population using the comparator, in order to find
-	 * the 5 individuals with best comfort. For the remaining individuals, a random number is generated which will decide if each individual survives or not
-	 * depending on their comfort.
-	 * At the end, new ID's are given to the survivors.
+	 * The simulateEvent() of an epidemic starts by finding the 5 individuals with best comfort, in a single scan of
+	 * the population. For the remaining individuals, a random number is generated which will
+	 * decide if each individual survives or not depending on their comfort, and the victims are collected in a set.
+	 * The events of all the victims are then removed from the PEC at once, and the survivors are kept at the start of
+	 * the array of the population, in the order they had.
+	 * The survivors keep their ID's, so that no ID is ever given to two individuals.
 	 */
 	public void simulateEvent(){
 				
-		//sort the population by comfort
-		pop.individuals.sort(comparator);
+		Individual[] individuals = pop.individuals;
+		int n = pop.v;
+		
+		//the 5 best individuals always survive
+		BitSet fittest = fittest( Math.min(FITTEST, n) );
+		
+		//the other individuals die if the random value is greater than their comfort
+		BitSet victims = new BitSet(n);
+		for(int i = 0; i < n; i++) {
+			if( fittest.get(i) ) continue;
+			
+			double survives = StochasticSimulation.random.nextDouble();
+			if(survives > individuals[i].comfort)
+				victims.set(i);
+		}
+		
+		//remove the pending events of all the victims from the PEC at once
+		List<Individual> dead = new ArrayList<>( victims.cardinality() );
+		for(int i = victims.nextSetBit(0); i >= 0; i = victims.nextSetBit(i + 1)) {
+			individuals[i].markDead();
+			pop.comforts.remove( individuals[i].comfort );
+			dead.add( individuals[i] );
+		}
+		sim.removeIndEvents( dead );
 				
-		//remove all individuals except for the 5 best
-		//remove their pending events from the PEC
-		int i = 0;
-		Iterator<Individual> iter = pop.individuals.iterator();
-		while (iter.hasNext()) {
+		//the survivors are moved to the start of the array
+		int survivors = 0;
+		for(int i = 0; i < n; i++) {
 			
-			Individual ind = iter.next();
+			Individual ind = individuals[i];
 			
-			if(i < 5) {
-				i++;
-			}
-			else {
-				double survives = StochasticSimulation.random.nextDouble(); 		
-				
-				//if the random value is greater than the comfort the individual dies
-				if(survives > ind.comfort) {
-					sim.pec.removeIndEvents( ind );
-					iter.remove();
-				}
+			if( victims.get(i) ) {
+				ind.index = -1;
+				pop.releaseSlot( ind );
+				continue;
 			}
+			
+			ind.index = survivors;
+			individuals[survivors] = ind;
+			survivors++;
 		} 
 						
 		//set the number of individuals left
-		pop.v = pop.countPopSize();
+		Arrays.fill(individuals, survivors, n, null);
+		pop.v = survivors;
+			
+	}
+	
+	/**
+	 * This method finds the individuals with the best comfort, keeping the best found so far in a heap
+	 * whose root is the worst of them, so that the population is scanned once in O(n log k) time.
+	 * @param k the number of individuals to find, at most the size of the population.
+	 * @return the set of the positions in the population of the k individuals with the best comfort.
+	 */
+	protected BitSet fittest(int k) {
 		
-		//give new ID's
-		pop.nextID = 0;
-		for(Individual ind : pop.individuals) {
-			ind.id = pop.nextID;
-			pop.nextID ++;
-		}
+		Individual[] individuals = pop.individuals;
+		int[] heap = new int[k];
+		BitSet best = new BitSet(pop.v);
+		if(k == 0) return best;
+		
+		for(int i = 0; i < pop.v; i++) {
 			
+			if(i < k) {
+				//sift the new individual up the heap
+				int c = i;
+				while(c > 0 && individuals[i].comfort < individuals[heap[(c - 1) / 2]].comfort) {
+					heap[c] = heap[(c - 1) / 2];
+					c = (c - 1) / 2;
+				}
+				heap[c] = i;
+			}
+			else if(individuals[i].comfort > individuals[heap[0]].comfort) {
+				//the new individual takes the place of the worst of the best and is sifted down the heap
+				int c = 0;
+				while(true) {
+					int child = 2 * c + 1;
+					if(child >= k) break;
+					if(child + 1 < k && individuals[heap[child + 1]].comfort < individuals[heap[child]].comfort)
+						child++;
+					if(individuals[heap[child]].comfort >= individuals[i].comfort) break;
+					heap[c] = heap[child];
+					c = child;
+				}
+				heap[c] = i;
+			}
+		}
+		
+		for(int i = 0; i < k; i++)
+			best.set( heap[i] );
+		return best;
 	}
 }
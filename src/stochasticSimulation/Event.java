@@ -4,6 +4,8 @@ package stochasticSimulation;
  * The interface for Events
  * It defines that an Event must provide the simulateEvent() method, as well 
  * as getInd(), getInd() and getTime().
+ * It also defines a getter and a setter for the position of the event inside a PEC, so that
+ * indexed PEC implementations can find a pending event without searching for it.
  * 
  * @author Manuel Serra
  */
@@ -13,5 +15,7 @@ public interface Event {
 	public abstract int getIndID();
 	public abstract Individual getInd();
 	public abstract double getTime();
+	public abstract int getPecIndex();
+	public abstract void setPecIndex(int index);
 
 }
@@ -0,0 +1,94 @@
+package stochasticSimulation;
+
+import java.util.ArrayDeque;
+
+/**
+ * The EventPool class keeps the Move, Reproduction and Death events of a simulation that have already
+ * been simulated or removed from the PEC, so that they can be reused for new events instead of creating new objects.
+ * The time of a new event is computed before an event is taken from the pool, so no event is taken when
+ * the time would be posterior to the death of the individual.
+ *
+ * @author Manuel Serra
+ */
+class EventPool {
+
+	/**
+	 * The Move events ready to be reused.
+	 */
+	protected ArrayDeque<Move> moves = new ArrayDeque<Move>();
+	/**
+	 * The Reproduction events ready to be reused.
+	 */
+	protected ArrayDeque<Reproduction> reproductions = new ArrayDeque<Reproduction>();
+	/**
+	 * The Death events ready to be reused.
+	 */
+	protected ArrayDeque<Death> deaths = new ArrayDeque<Death>();
+
+	/**
+	 * This method gives the next Move of an individual.
+	 * @param ind the Individual that will make the move.
+	 * @return the Move, or null if the individual dies before it.
+	 */
+	Move newMove(Individual ind) {
+
+		double time = Move.newTime( ind );
+		if(time < 0) return null;
+
+		Move ev = moves.poll();
+		if(ev == null) ev = new Move();
+		ev.init( ind, time );
+		return ev;
+	}
+
+	/**
+	 * This method gives the next Reproduction of an individual.
+	 * @param ind the Individual that will reproduce.
+	 * @return the Reproduction, or null if the individual dies before it.
+	 */
+	Reproduction newReproduction(Individual ind) {
+
+		double time = Reproduction.newTime( ind );
+		if(time < 0) return null;
+
+		Reproduction ev = reproductions.poll();
+		if(ev == null) ev = new Reproduction();
+		ev.init( ind, time );
+		return ev;
+	}
+
+	/**
+	 * This method gives the Death of an individual and sets its time of death.
+	 * @param ind the Individual that will die.
+	 * @return the Death.
+	 */
+	Death newDeath(Individual ind) {
+
+		double time = Death.newTime( ind );
+
+		Death ev = deaths.poll();
+		if(ev == null) ev = new Death();
+		ev.init( ind, time );
+		return ev;
+	}
+
+	/**
+	 * This method gives an event back to the pool. The event must not be in the PEC anymore.
+	 * Events of other types are ignored.
+	 * @param ev the event to be reused.
+	 */
+	void release(Event ev) {
+
+		if(ev instanceof Move)
+			moves.push( (Move) ev );
+		else if(ev instanceof Reproduction)
+			reproductions.push( (Reproduction) ev );
+		else if(ev instanceof Death)
+			deaths.push( (Death) ev );
+		else
+			return;
+
+		//the pool must not keep dead individuals alive
+		((StochasticEvent) ev).ind = null;
+	}
+}
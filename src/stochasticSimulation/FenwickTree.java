@@ -0,0 +1,142 @@
+package stochasticSimulation;
+
+import java.util.Arrays;
+
+/**
+ * The FenwickTree class keeps an array of non negative values and their prefix sums in a binary indexed tree
+ * (P. Fenwick, 1994). Changing a value, computing the total and finding the position where a given
+ * cumulative sum is reached all take O(log n) time.
+ * Since changes are made by adding the difference to the stored sums, the tree is built again from the values
+ * every REBUILD changes so that rounding errors do not pile up.
+ *
+ * @author Manuel Serra
+ */
+class FenwickTree {
+
+	/**
+	 * The number of changes after which the sums are computed again from the values.
+	 */
+	static final int REBUILD = 1 << 20;
+
+	/**
+	 * The values kept in the tree.
+	 */
+	protected double[] values;
+	/**
+	 * The binary indexed tree of partial sums, indexed from 1.
+	 */
+	protected double[] tree;
+	/**
+	 * The number of changes since the tree was last built.
+	 */
+	protected int changes = 0;
+
+	/**
+	 * Constructor for a FenwickTree where all values are 0.
+	 * @param n the initial number of values.
+	 */
+	FenwickTree(int n) {
+		values = new double[Math.max(n, 1)];
+		tree = new double[values.length + 1];
+	}
+
+	/**
+	 * This method retrieves the number of values the tree can keep.
+	 * @return the capacity of the tree.
+	 */
+	int capacity() {
+		return values.length;
+	}
+
+	/**
+	 * Getter for a value.
+	 * @param i the position of the value.
+	 * @return the value in position i.
+	 */
+	double get(int i) {
+		return values[i];
+	}
+
+	/**
+	 * Setter for a value. The tree grows if the position is beyond its capacity.
+	 * @param i the position of the value.
+	 * @param value the new value.
+	 */
+	void set(int i, double value) {
+
+		if(i >= values.length) {
+			values = Arrays.copyOf(values, Math.max(2 * values.length, i + 1));
+			tree = new double[values.length + 1];
+			build();
+		}
+
+		double delta = value - values[i];
+		values[i] = value;
+
+		if(++changes >= REBUILD) {
+			build();
+			return;
+		}
+
+		for(int j = i + 1; j < tree.length; j += j & -j)
+			tree[j] += delta;
+	}
+
+	/**
+	 * This method computes the sum of all the values.
+	 * @return the total.
+	 */
+	double total() {
+		double sum = 0;
+		for(int j = values.length; j > 0; j -= j & -j)
+			sum += tree[j];
+		return sum;
+	}
+
+	/**
+	 * This method computes the sum of the values before a given position.
+	 * @param i the position, at most the capacity of the tree.
+	 * @return the sum of the values in positions 0 to i-1.
+	 */
+	double sum(int i) {
+		double sum = 0;
+		for(int j = i; j > 0; j -= j & -j)
+			sum += tree[j];
+		return sum;
+	}
+
+	/**
+	 * This method finds the position where the cumulative sum of the values goes beyond u, that is, the
+	 * position i such that the sum of the values before i is at most u and the sum up to i is larger than u.
+	 * Drawing u uniformly from [0, total) gives each position with probability proportional to its value.
+	 * @param u the cumulative sum to find.
+	 * @return the position found, which is beyond the last value if u is not smaller than the total.
+	 */
+	int find(double u) {
+
+		int pos = 0;
+		for(int step = Integer.highestOneBit(values.length); step > 0; step >>= 1) {
+			int next = pos + step;
+			if(next <= values.length && tree[next] <= u) {
+				pos = next;
+				u -= tree[next];
+			}
+		}
+		return pos;
+	}
+
+	/**
+	 * This method computes all the partial sums from the values, in linear time.
+	 */
+	void build() {
+
+		Arrays.fill(tree, 0);
+		for(int j = 1; j < tree.length; j++) {
+			tree[j] += values[j-1];
+			int parent = j + (j & -j);
+			if(parent < tree.length)
+				tree[parent] += tree[j];
+		}
+		changes = 0;
+	}
+}
@@ -0,0 +1,168 @@
+package stochasticSimulation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GillespieShortestPath is a StochasticShortestPath that runs the simulation as a continuous time Markov
+ * process with Gillespie's direct method, instead of keeping the events in a PEC.
+ * Moves, reproductions and deaths of an individual happen at rates that only depend on its comfort and on the
+ * parameters of the simulation: the inverse of the means used by Move, Reproduction and Death.
+ * The total rate of each individual is kept in a FenwickTree indexed by its slot, so the next individual to act
+ * is drawn in O(log n), and only the rates of the individuals touched by an event are updated.
+ * Unlike in the event driven simulation, the rate of death follows the comfort of the individual as it changes,
+ * instead of being drawn once at birth.
+ *
+ * @author Manuel Serra
+ */
+public class GillespieShortestPath extends StochasticShortestPath {
+
+	/**
+	 * The total rate of events of the individual in each slot.
+	 */
+	protected FenwickTree rates;
+	/**
+	 * The rate of moves of the individual in each slot.
+	 */
+	protected double[] moveRates;
+	/**
+	 * The rate of reproductions of the individual in each slot.
+	 */
+	protected double[] reprRates;
+
+	/**
+	 * Constructor for a GillespieShortestPath instance.
+	 * @param pop the population of the simulation.
+	 * @param grid the grid where the simulation is taking place.
+	 * @param moveParam the parameter for the mean of Move events.
+	 * @param deathParam the parameter for the mean of Death events.
+	 * @param reprParam the parameter for the mean of Reproduction events.
+	 * @param simulationTime the final time of the simulation.
+	 */
+	GillespieShortestPath(Population pop, Grid grid, int moveParam,
+							int deathParam, int reprParam, double simulationTime){
+
+		super( pop, grid, moveParam, deathParam, reprParam, simulationTime);
+
+		rates = new FenwickTree( pop.v );
+		moveRates = new double[rates.capacity()];
+		reprRates = new double[rates.capacity()];
+	}
+
+	/**
+	 * This method evolves the population with the direct method. At each step the individual of the next event
+	 * is drawn with probability proportional to its rate, the time until the event is drawn from an exponential
+	 * distribution with the total rate of the population and the kind of event with probability proportional
+	 * to the rate of each kind.
+	 */
+	@Override
+	public void simulate() {
+
+		int lastObs = 0;
+
+		for(int i = 0; i < pop.v; i++) {
+			updateRates( pop.individuals[i] );
+		}
+
+		while( true ) {
+
+			//if the population exceeds the maximum an Epidemic is launched
+			if(pop.v >= pop.vmax) {
+				StochasticEvent evE = new Epidemic( pop );
+				evE.simulateEvent();
+			}
+
+			//if there are no more events to simulate stop the simulation
+			double total = rates.total();
+			if(total <= 0) break;
+
+			//draw the individual of the next event
+			int slot = rates.find( StochasticSimulation.random.nextDouble() * total );
+			if(slot >= pop.nSlots || pop.getBySlot(slot) == null) {
+				//only rounding errors lead here, so the sums are computed again and the event is drawn again,
+				//before the clock moves
+				rates.build();
+				continue;
+			}
+			Individual ind = pop.getBySlot(slot);
+
+			//fast forward to the time of the next event
+			currentTime += StochasticEvent.expRandom( 1 / total );
+
+			//an observation is launched every simulationTime/20 time units
+			lastObs = observe( lastObs );
+
+			if(currentTime >= simulationTime) break;
+
+			eventCounter++;
+
+			//draw the kind of the event and simulate it
+			double u = StochasticSimulation.random.nextDouble() * rates.get(slot);
+
+			if(u < moveRates[slot]) {
+				grid.step( ind );
+				ind.update();
+				updateRates( ind );
+			}
+			else if(u < moveRates[slot] + reprRates[slot]) {
+				Individual child = ind.makeChild();
+				updateRates( child );
+			}
+			else {
+				clearRates( slot );
+				pop.removeInd( ind );
+			}
+
+			//check if there is need to update the best path so far
+			updateBest( ind );
+		}
+	}
+
+	/**
+	 * The events of an individual killed by an epidemic are removed by setting its rates to zero.
+	 * @param ind the individual whose events are to be removed.
+	 */
+	@Override
+	protected void removeIndEvents(Individual ind) {
+		clearRates( ind.slot );
+	}
+
+	/**
+	 * The events of the individuals killed by an epidemic are removed by setting their rates to zero.
+	 * @param inds the individuals whose events are to be removed.
+	 */
+	@Override
+	protected void removeIndEvents(List<Individual> inds) {
+		for(Individual ind : inds)
+			clearRates( ind.slot );
+	}
+
+	/**
+	 * This method computes the rates of an individual from its comfort, as the inverse of the means of the
+	 * exponential distributions used by Move, Reproduction and Death.
+	 * @param ind the individual whose rates are to be updated.
+	 */
+	protected void updateRates(Individual ind) {
+
+		int slot = ind.slot;
+		if(slot >= moveRates.length) {
+			moveRates = Arrays.copyOf(moveRates, Math.max(2 * moveRates.length, slot + 1));
+			reprRates = Arrays.copyOf(reprRates, moveRates.length);
+		}
+
+		moveRates[slot] = moveRate( ind.comfort );
+		reprRates[slot] = reprRate( ind.comfort );
+
+		rates.set( slot, moveRates[slot] + reprRates[slot] + deathRate( ind.comfort ) );
+	}
+
+	/**
+	 * This method sets the rates of a slot to zero.
+	 * @param slot the slot of the individual that has died.
+	 */
+	protected void clearRates(int slot) {
+		moveRates[slot] = 0;
+		reprRates[slot] = 0;
+		rates.set( slot, 0 );
+	}
+}
@@ -1,5 +1,9 @@
 package stochasticSimulation;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * The Grid class which implements the Gird interface.
@@ -10,6 +14,10 @@ import java.util.Map;
  */
 public class Grid implements IGrid{
 	
+	/**
+	 * the number of special cost zones from which they are drawn in parallel.
+	 */
+	static final int PARALLEL_ZONES = 64;
 	/**
 	 * the number of columns in the grid.
 	 */
@@ -26,18 +34,55 @@ public class Grid implements IGrid{
 	 * a table that keeps the costs of the grid.
 	 */
 	protected int costMap[][]; //a matrix with the cost of each position
-	/**
-	 * Point representing the goal if a best path is to be found.
-	 */
-	protected Point goal = null; //a grid may or may not have a goal, defined with a setter
 	/**
 	 * an array of Obstacles that are present in the grid configuration.
 	 */
 	protected Obstacle[] obstacles;
+	/**
+	 * the index of the cell of the goal, -1 if there is no goal.
+	 */
+	protected int goalCell = -1;
+	/**
+	 * a mask that tells for each cell, given by its index, if it is an obstacle. Null if there are no obstacles.
+	 */
+	protected boolean[] obstacleMask;
+	/**
+	 * the distance in steps from each cell, given by its index, to the goal going around the obstacles.
+	 * Null if the distance to the goal is measured without taking obstacles into account.
+	 */
+	protected int[] distField;
+	/**
+	 * a bound on the distance to the goal, by which distances are divided to compute the comfort.
+	 */
+	protected int distScale;
+	/**
+	 * the policy with which the moves of the individuals are chosen.
+	 */
+	protected MovePolicy movePolicy = new UniformMovePolicy();
 	/**
 	 * an array of SpecialZones which are present in the grid configuration.
 	 */
 	protected SpecialZone[] spZones;
+	/**
+	 * the difference between the index of a cell and the index of its neighbour in each direction.
+	 * The directions are coded as follows: 0 - up ; 1 - right ; 2 - down ;  3 - left
+	 */
+	protected int[] moveOffsets;
+	/**
+	 * a mask for each cell, given by its index, with bit d set if the move in direction d is valid.
+	 */
+	protected byte[] moveMask;
+	/**
+	 * the cost of the step from each cell in each direction, in position 4 * cell + direction.
+	 */
+	protected int[] stepCosts;
+	
+	/**
+	 *Constructor for the subclasses of Grid that keep the cells of the grid in other structures, and set the
+	 *fields of the grid themselves.
+	 */
+	protected Grid() {
+	}
 	
 	/**
 	 *Constructor for a simple grid with no obstacles or special cost zones.
@@ -47,6 +92,7 @@ public class Grid implements IGrid{
 	public Grid(int N, int M) {
 		dimN = N;
 		dimM = M;
+		compileMoves();
 	}
 	
 	/**
@@ -63,6 +109,7 @@ public class Grid implements IGrid{
 		costMap = new int[dimM][dimN];
 		this.spZones = spZones;
 		setCostMap();
+		compileMoves();
 	}
 	
 	/**
@@ -75,6 +122,8 @@ public class Grid implements IGrid{
 		dimN = N;
 		dimM = M;
 		this.obstacles = obstacles;
+		setObstacleMask();
+		compileMoves();
 	}
 
 	/**
@@ -93,6 +142,8 @@ public class Grid implements IGrid{
 		this.obstacles = obstacles;
 		newCostMap();
 		setCostMap();
+		setObstacleMask();
+		compileMoves();
 	}
 	
 	/**
@@ -102,194 +153,293 @@ public class Grid implements IGrid{
 	 *points with other algorithms such as Dijkstra's algorithm.
 	 * @param origin is the initial point of the shortest path to be found.
 	 * @param goal is the destination point of the shortest path to be found.
-	 * @param params are the parameters to initialize the StochasticsShortestPath object.
+	 * @param params are the parameters to initialize the StochasticsShortestPath object. The "pec" parameter
+	 * is optional and holds the name of the PEC implementation to use. The "scheduling" parameter is also optional
+	 * and is "clock" if each individual is to keep a single event in the PEC, or "split" (default) for separate
+	 * Death, Move and Reproduction events. The "engine" parameter is optional too and is "event" (default) for the
+	 * event driven simulation, "gillespie" for the GillespieShortestPath or "tau" for the TauLeapingShortestPath,
+	 * which keep no PEC, so the "pec", "scheduling" and "trace" parameters can not be given with them. The optional
+	 * "epsilon" parameter is the mean number of events of an individual in a leap of the TauLeapingShortestPath, and
+	 * can only be given with it. The optional "trace" parameter is the name of a file where
+	 * every call made to the PEC is recorded. The optional "distance" parameter is
+	 * "manhattan" (default) to measure the distance to the goal without taking obstacles into account or "bfs" to
+	 * measure it around the obstacles. The optional "temperature" parameter makes the individuals choose their moves
+	 * with a SoftmaxMovePolicy of that temperature instead of at random. The optional "seed" parameter is the seed of
+	 * the random generator of the simulation, so that a run can be repeated.
 	 */
 	public void findBestPath(Point origin, Point goal, Map<String, Object> params) {
 							
-		this.goal = goal;
+		this.goalCell = toCell(goal);
+		this.distScale = dimN + dimM + 1;
+		
+		//repeat the random choices of a previous run
+		String seed = (String) params.get("seed");
+		if(seed != null)
+			StochasticSimulation.setSeed( Long.parseLong(seed) );
+		
+		//choose how the moves of the individuals are chosen
+		String temperature = (String) params.get("temperature");
+		if(temperature != null)
+			movePolicy = new SoftmaxMovePolicy( Double.parseDouble(temperature) );
+		
+		//choose how the distance to the goal is measured
+		String distance = (String) params.get("distance");
+		if( "bfs".equalsIgnoreCase(distance) )
+			setDistanceField();
+		else if( distance != null && !"manhattan".equalsIgnoreCase(distance) )
+			throw new IllegalArgumentException("Unknown distance: " + distance);
 		
 		//set the initial position of the population and the grid where it lives
 		Population pop = (Population)params.get("pop");
+		
 		pop.setGrid(this);
 		pop.setInitPos(origin);
 		
 		//Instantiate a new Stochastic Simulation to find the shortest path
-		StochasticSimulation stochSim = new StochasticShortestPath(		
-																	pop,
-																	this,
-																	(Integer) params.get("move"),
-																	(Integer) params.get("death"),
-																	(Integer) params.get("repr"),
-																	(Double) params.get("finalinst"));
+		StochasticShortestPath stochSim;
+		String engine = (String) params.get("engine");
+		
+		//the engines that draw the events from the rates of the individuals keep no PEC
+		if( engine != null && !"event".equalsIgnoreCase(engine) ) {
+			for(String key : new String[] {"pec", "scheduling", "trace"}) {
+				if(params.get(key) != null)
+					throw new IllegalArgumentException(key + " can not be given with engine=" + engine);
+			}
+		}
+		if( params.get("epsilon") != null && !"tau".equalsIgnoreCase(engine) )
+			throw new IllegalArgumentException("epsilon can only be given with engine=tau");
+		
+		if( engine == null || "event".equalsIgnoreCase(engine) ) {
+			stochSim = new StochasticShortestPath(		
+												pop,
+												this,
+												(Integer) params.get("move"),
+												(Integer) params.get("death"),
+												(Integer) params.get("repr"),
+												(Double) params.get("finalinst"),
+												(String) params.get("pec"));
+		}
+		else if( "gillespie".equalsIgnoreCase(engine) ) {
+			stochSim = new GillespieShortestPath(		
+												pop,
+												this,
+												(Integer) params.get("move"),
+												(Integer) params.get("death"),
+												(Integer) params.get("repr"),
+												(Double) params.get("finalinst"));
+		}
+		else if( "tau".equalsIgnoreCase(engine) ) {
+			TauLeapingShortestPath tauSim = new TauLeapingShortestPath(		
+												pop,
+												this,
+												(Integer) params.get("move"),
+												(Integer) params.get("death"),
+												(Integer) params.get("repr"),
+												(Double) params.get("finalinst"));
+			
+			String epsilon = (String) params.get("epsilon");
+			if(epsilon != null) {
+				double eps = Double.parseDouble(epsilon);
+				if(!(eps > 0))
+					throw new IllegalArgumentException("epsilon must be positive: " + epsilon);
+				tauSim.setEpsilon(eps);
+			}
+			stochSim = tauSim;
+		}
+		else
+			throw new IllegalArgumentException("Unknown engine: " + engine);
+		
+		//choose how the events of each individual are kept in the PEC
+		String scheduling = (String) params.get("scheduling");
+		if( "clock".equalsIgnoreCase(scheduling) )
+			stochSim.setSingleClock(true);
+		else if( scheduling != null && !"split".equalsIgnoreCase(scheduling) )
+			throw new IllegalArgumentException("Unknown scheduling: " + scheduling);
+		
+		//record the calls made to the PEC
+		String trace = (String) params.get("trace");
+		if(trace != null)
+			stochSim.recordTrace(trace);
 		
 		//associate all future stochastic events and the population with this StochasticSimulation
 		StochasticEvent.setSim( stochSim );
 		pop.setSim( stochSim );
-		pop.setGoal(goal);
 					
 		//Run the StochasticSimulation
 		stochSim.simulate();
+		stochSim.closeTrace();
 
 	}
 	
 	/**
 	 *This method allows allows an individual of the population of a stochasticSimulation to give steps in the grid.
-	 *It checks the valid moves according to the grids limits and obstacles and selects a random move from the pool of valid moves.
-	 *After the move is selected the position of the individual is changes accordingly.
-	 *If no valid move is found the position is maintained as it was.
+	 *The valid moves according to the grids limits and obstacles are read from the mask of the cell of the individual
+	 *and a move is selected from them by the move policy of the grid. After the move is selected the position of the
+	 *individual is changed by the offset of its direction. If no valid move is found the position is maintained as it was.
 	 * @param ind is the individual that will give a step in the grid.
 	 */
 	public void step( Individual ind){
 		
-		int move, moveIndx;
-		Integer[] validMoves;
-		
-		//get the pool of valid moves.
-		validMoves = getValidMoves( ind.position );
+		int mask = getMoveMask(ind.cell);
 		
 		//no valid move found
-		if(validMoves.length == 0) return;
+		if(mask == 0) return;
 
-		//get random index from the validMoves array
-		moveIndx = StochasticSimulation.random.nextInt( validMoves.length );
-		move = validMoves[moveIndx];
-		
-		//go up	
-		if(move == 0) ind.position.incrementY();
-			
-		//go right	
-		else if(move == 1) ind.position.incrementX();
+		ind.cell += moveOffsets[ movePolicy.chooseMove(this, ind.cell, mask) ];
+	}
+	
+	/**
+	 *This method computes the cost of a step in the grid between two cells given by their indices.
+	 *The cost is read from the table of step costs when the cells are neighbours, and computed from the
+	 *costs of the cells with computeStepCost() otherwise.
+	 * @param origin is the index of the initial cell of the step
+	 * @param destination is the index of the final cell of the step
+	 * @return An integer with the cost of the step
+	 */
+	protected int getStepCost(int origin, int destination) {
 		
-		//go down
-		else if(move == 2) ind.position.decrementY();	
-
-		//go left
-		else if(move == 3) ind.position.decrementX();			
+		int mask = getMoveMask(origin);
+		for(int move = 0; move < 4; move++) {
+			if( (mask & (1 << move)) != 0 && origin + moveOffsets[move] == destination )
+				return getMoveCost(origin, move);
+		}
+		return computeStepCost(origin, destination);
+	}
+	
+	/**
+	 *This method retrieves the valid moves from a cell given by its index.
+	 * @param cell is the index of the cell.
+	 * @return the mask of the valid moves from the cell, with bit d set if the move d is valid.
+	 */
+	protected int getMoveMask(int cell) {
+		return moveMask[cell];
+	}
+	
+	/**
+	 *This method retrieves the cost of a valid move from a cell given by its index.
+	 * @param cell is the index of the cell.
+	 * @param move is the code of the move.
+	 * @return An integer with the cost of the step.
+	 */
+	protected int getMoveCost(int cell, int move) {
+		return stepCosts[4 * cell + move];
 	}
 	
 	/**
-	 *This method computes the cost of a step in the grid, according to the grid costs.
-	 *Since the costs are set for each square in costMap, the move cost can be computed as follows:
+	 *This method retrieves the cost of a cell given by its index.
+	 * @param cell is the index of the cell.
+	 * @return An integer with the cost of the cell, 1 if it is out of every special cost zone.
+	 */
+	protected int getCellCost(int cell) {
+		return costMap == null ? 1 : costMap[cell / dimN][cell % dimN];
+	}
+	
+	/**
+	 *This method computes the cost of a step in the grid between two cells given by their indices from the costs
+	 *of the cells:
 	 * 1) a move has cost 1 if the origin or destination of the move has cost 1.
 	 * 2) a move has cost different than one if it is taken between two squares of cost
 	 * different than one. In this case the cost of the move is the cost of the destination square.
-	 * The moves are coded as follows:
-	 * 0 - up ; 1 - right ; 2 - down ;  3 - left
-	 * @param origin is the initial point of the step
-	 * @param destination is the final point of the step
+	 * @param origin is the index of the initial cell of the step
+	 * @param destination is the index of the final cell of the step
 	 * @return An integer with the cost of the step
 	 */
-	protected int getStepCost(Point origin, Point destination) {
+	protected int computeStepCost(int origin, int destination) {
+		
+		int destCost = getCellCost(destination);
 		
-		//if the origin or the destination of the move are not special zones
-		//the cost of the move will be 1
-		if( costMap[origin.getY()-1][origin.getX()-1] == 1 
-			|| 
-			costMap[destination.getY()-1][destination.getX()-1] == 1) { 
+		if( getCellCost(origin) == 1 || destCost == 1 )
 			return 1;
-		}
-		//if the move is between zones of special cost the cost of the move is
-		//the cost associated with the destination position
 		else
-			return costMap[destination.getY()-1][destination.getX()-1];
-
+			return destCost;
 	}
 	
 	/**
-	 *This method retrieves the possible moves from a position given as input.
-	 *It tries out every move and checks if the resulting position is an object or is out
-	 *of the grid's bounds. If so, the move is invalid, otherwise it's a valid move.
+	 *This method packs a point of the grid into the index of its cell, counting the cells row by row from 0.
+	 * @param point is the point of the grid.
+	 * @return An integer with the index of the cell.
+	 */
+	protected int toCell(Point point) {
+		return (point.getY()-1) * dimN + point.getX()-1;
+	}
+	
+	/**
+	 *This method creates the point of the grid of a cell given by its index.
+	 * @param cell is the index of the cell.
+	 * @return A new Point with the coordinates of the cell.
+	 */
+	protected Point toPoint(int cell) {
+		return new Point( cell % dimN + 1, cell / dimN + 1 );
+	}
+	
+	/**
+	 *This method compiles the moves of the grid, once its obstacles and costs are set.
+	 *For every cell it tries out every move and checks if the resulting cell is an obstacle or is out
+	 *of the grid's bounds. If so, the move is invalid, otherwise it's a valid move, which is set in the mask
+	 *of the cell and whose cost is kept in the table of step costs.
 	 *The moves are coded as follows:
 	 * 0 - up ; 1 - right ; 2 - down ;  3 - left
-	 *@param indPosition the Point where the move is taking place from.
-	 * @return An Integer array with the predefined codes of the valid moves.
 	 */
-	protected Integer[] getValidMoves( Point indPosition ) {
+	protected void compileMoves() {
 		
-		int validMoves[] = {-1, -1, -1, -1};
-		int validCount = 0;
-		Point next = new Point( indPosition.getX() , indPosition.getY());
+		moveOffsets = new int[] {dimN, 1, -dimN, -1};
+		moveMask = new byte[dimN * dimM];
+		stepCosts = new int[4 * dimN * dimM];
 		
-		//iterate all possible move codes (0 to 3)
-		//simulate every move and check its validity
-		for( int move = 0; move < 4; move++) {
+		for(int cell = 0; cell < dimN * dimM; cell++) {
+			
+			int x = cell % dimN, y = cell / dimN;
+			int mask = 0;
 			
 			//go up
-			if(move == 0){ 
-				
-				next.incrementY();
-				
-				//if the new coordinates are not an obstacle and don't go over the grid's limits
-				if( ! ( isObstacle(next) || next.getY() > dimM ) ) {
-					//add the move to the list of valid moves
-					validMoves[validCount] = move;
-					validCount++;
-				}
-				next.decrementY();
-			}
+			if( y + 1 < dimM && !isObstacle(cell + dimN) ) mask |= 1;
 			//go right
-			else if(move == 1) {
-				
-				next.incrementX();
-				if( ! ( isObstacle(next) || next.getX() > dimN ) ) {
-					validMoves[validCount] = move;
-					validCount++;
-				}
-				next.decrementX();
-			}
+			if( x + 1 < dimN && !isObstacle(cell + 1) ) mask |= 2;
 			//go down
-			else if(move == 2) {
-				next.decrementY();
-				if( ! ( isObstacle(next) || next.getY() <= 0 ) ) {
-					validMoves[validCount] = move;
-					validCount++;
-				}
-				next.incrementY();
-			}
+			if( y > 0 && !isObstacle(cell - dimN) ) mask |= 4;
 			//go left
-			else if(move == 3) {
-				next.decrementX();
-				if( ! ( isObstacle(next) || next.getX() <= 0 ) ) {
-					validMoves[validCount] = move;
-					validCount++;
-				}
-				next.incrementX();
+			if( x > 0 && !isObstacle(cell - 1) ) mask |= 8;
+			
+			moveMask[cell] = (byte) mask;
+			for(int move = 0; move < 4; move++) {
+				if( (mask & (1 << move)) != 0 )
+					stepCosts[4 * cell + move] = computeStepCost( cell, cell + moveOffsets[move] );
 			}
 		}
-		
-		//return an array containing only the codes of the valid moves
-		Integer[] validMovesOut = new Integer[validCount];
-		for(int i = 0; i < validCount; i++) {
-			validMovesOut[i] = validMoves[i]; 
-		}
-		
-		return validMovesOut;
 	}
 	
 	/**
-	 *This method tells if a given point in the grid is an obstacle.
-	 * @param point is the point that the method must tell if it is an obstacle or not
-	 * @return a boolean indicating that the point is an obstacle if true or not, if false.
+	 *This method tells if a cell of the grid, given by its index, is an obstacle.
+	 * @param cell is the index of the cell that the method must tell if it is an obstacle or not
+	 * @return a boolean indicating that the cell is an obstacle if true or not, if false.
+	 */
+	protected boolean isObstacle(int cell) {
+		return obstacleMask != null && obstacleMask[cell];
+	}
+	
+	/**
+	 *This method marks the cells of the obstacles of the grid in the obstacle mask.
 	 */
-	private boolean isObstacle(Point point) {
+	protected void setObstacleMask() {
 		
+		obstacleMask = new boolean[dimN * dimM];
+		if(obstacles == null) return;
 		for(Obstacle obst : obstacles) {
-			if(point.equals( obst ) )
-				return true;
+			if(obst != null && obst.getX() >= 1 && obst.getX() <= dimN && obst.getY() >= 1 && obst.getY() <= dimM)
+				obstacleMask[toCell(obst)] = true;
 		}
-		
-		return false;
 	}
 		
 	/**
-	 *This method computes the distance between a point and the goal in hops, 
-	 *independently of the presence of obstacles.
-	 * @param point the point from where the distance to the goal is to be calculated.
+	 *This method computes the distance between a cell, given by its index, and the goal in hops, 
+	 *around the obstacles if the distance field has been computed, and independently of them otherwise.
+	 * @param cell the index of the cell from where the distance to the goal is to be calculated.
 	 * @return An integer with the value of the distance.
 	 */
-	protected int getDistanceToGoal(Point point) {
+	protected int getDistanceToGoal(int cell) {
 		
-		return Math.abs( goal.getY() - point.getY() ) + Math.abs( goal.getX() - point.getX() );
+		if(distField != null) return distField[cell];
+		return Math.abs( goalCell / dimN - cell / dimN ) + Math.abs( goalCell % dimN - cell % dimN );
 		
 	}
 	
@@ -297,43 +447,96 @@ public class Grid implements IGrid{
 	 *This method initializes the cost map according to the special cost zones array. It assumes
 	 *that the cost map is implemented as a table so it would have to be redefined if a different implementation
 	 *is desired.
+	 *Only the border of each zone is drawn, in O(perimeter) time. When there are many zones they are drawn in
+	 *parallel into a flat array, where each cell always keeps the maximum cost of the zones that cross it.
 	 */
 	protected void setCostMap() {
-			
-		SpecialZone currZone;
-		int maxX=0, maxY=0,minX=0, minY=0;
 		
-		//initialize all with 1
-		for(int i = 0; i < dimN; i++) {		//x
-			for(int j = 0; j < dimM; j++) { //y
-				costMap[j][i] = 1;
+		AtomicIntegerArray costs = new AtomicIntegerArray(dimN * dimM);
+		
+		//draw the borders of all the zones
+		IntStream zones = IntStream.range(0, spZones.length);
+		if(spZones.length >= PARALLEL_ZONES)
+			zones = zones.parallel();
+		zones.forEach( k -> drawZone( spZones[k], cell -> costs.accumulateAndGet( cell, spZones[k].cost, Math::max ) ) );
+		
+		//the cells out of every border have cost 1
+		for(int j = 0; j < dimM; j++) {		//y
+			for(int i = 0; i < dimN; i++) { //x
+				costMap[j][i] = Math.max( 1, costs.get(j * dimN + i) );
 			}
 		}
+	}
+	
+	/**
+	 *This method draws the border of a special cost zone, clipped to the grid, giving the index of each cell of
+	 *the border to a consumer that keeps in the cell the maximum between its cost and the cost of the zone.
+	 * @param zone is the special cost zone to be drawn.
+	 * @param border is the consumer of the cells of the border, given by their indices.
+	 */
+	protected void drawZone(SpecialZone zone, IntConsumer border) {
 		
-		//iterate all grid coordinates
-		for(int i = 0; i < dimN; i++) {		//x
-			for(int j = 0; j < dimM; j++) { //y
-				
-				//iterate all specialZones
-				for(int k = 0; k < spZones.length; k++) {
-					currZone = spZones[k];
-					maxX = Math.max(currZone.pInitial.getX(), currZone.pFinal.getX());
-					minX = Math.min(currZone.pInitial.getX(), currZone.pFinal.getX());
-					maxY = Math.max(currZone.pInitial.getY(), currZone.pFinal.getY());
-					minY = Math.min(currZone.pInitial.getY(), currZone.pFinal.getY());
-						
-					if( (i+1 >= minX && i+1 <= maxX && j+1 >= minY && j+1 <= maxY) 
-						&&
-						(i+1 == minX || i+1 == maxX || j+1 == minY || j+1 == maxY)){
-			
-						if(costMap[j][i] < currZone.cost) //always keep the maximum cost of a zone
-							costMap[j][i] = currZone.cost;
-					}		
+		if(zone == null) return;
+		
+		int minX = Math.min(zone.pInitial.getX(), zone.pFinal.getX());
+		int maxX = Math.max(zone.pInitial.getX(), zone.pFinal.getX());
+		int minY = Math.min(zone.pInitial.getY(), zone.pFinal.getY());
+		int maxY = Math.max(zone.pInitial.getY(), zone.pFinal.getY());
+		
+		//the part of the border inside the grid
+		int fromX = Math.max(minX, 1), toX = Math.min(maxX, dimN);
+		int fromY = Math.max(minY, 1), toY = Math.min(maxY, dimM);
+		if(fromX > toX || fromY > toY) return;
+		
+		//bottom and top rows
+		for(int y : new int[] {minY, maxY}) {
+			if(y < 1 || y > dimM) continue;
+			for(int x = fromX; x <= toX; x++)
+				border.accept( (y-1) * dimN + x-1 );
+		}
+		
+		//left and right columns
+		for(int x : new int[] {minX, maxX}) {
+			if(x < 1 || x > dimN) continue;
+			for(int y = fromY; y <= toY; y++)
+				border.accept( (y-1) * dimN + x-1 );
+		}
+	}
+		
+	/**
+	 *This method computes the distance in steps from every cell to the goal going around the obstacles, with a
+	 *breadth first search from the goal over the valid moves of the grid. Since a move is only invalid when it leaves the
+	 *grid or enters an obstacle, the moves from a free cell lead to the cells from which it can be reached.
+	 *The cells from which the goal can not be reached are given the largest distance, distScale, which is made
+	 *larger than the largest distance found if needed.
+	 */
+	protected void setDistanceField() {
+		
+		distField = new int[dimN * dimM];
+		Arrays.fill(distField, -1);
+		int[] queue = new int[dimN * dimM];
+		int head = 0, tail = 0, maxDist = 0;
+		
+		distField[goalCell] = 0;
+		queue[tail++] = goalCell;
+		while(head < tail) {
+			int cell = queue[head++];
+			maxDist = distField[cell];
+			for(int mask = moveMask[cell]; mask != 0; mask &= mask - 1) {
+				int next = cell + moveOffsets[ Integer.numberOfTrailingZeros(mask) ];
+				if(distField[next] < 0) {
+					distField[next] = distField[cell] + 1;
+					queue[tail++] = next;
 				}
 			}
-		}	
-	}
+		}
 		
+		distScale = Math.max(distScale, maxDist + 1);
+		for(int cell = 0; cell < distField.length; cell++) {
+			if(distField[cell] < 0) distField[cell] = distScale;
+		}
+	}
+	
 	/**
 	 *This method declares a new cost map with the grid dimensions.
 	 */
@@ -1,8 +1,8 @@
 package stochasticSimulation;
 
 import java.util.List;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  *The Individual class that defines the individuals created and evolved during a stochastic simulation execution.
@@ -17,9 +17,17 @@ import java.util.LinkedList;
 public class Individual {
 
 	/**
-	 * The identifier number of an individual object. Unique within a Population.
+	 * The identifier number of an individual object. Unique within a Population and never given again.
 	 */
 	protected int id;
+	/**
+	 * The position of the individual in the array of individuals of its Population, -1 if it is not in one.
+	 */
+	protected int index = -1;
+	/**
+	 * The slot of the individual in its Population. Unique among the individuals alive, -1 if it has none.
+	 */
+	protected int slot = -1;
 	/**
 	 * The comfort parameter of the individual.
 	 */
@@ -29,14 +37,31 @@ public class Individual {
 	 */
 	protected double deathTime;
 	/**
-	 * A boolean table that keeps track of the visited positions (true).
+	 * The time of the next move of the individual, -1 if it dies before moving again.
+	 * Only used when the individual keeps its own clock.
+	 */
+	protected double moveTime = -1;
+	/**
+	 * The time of the next reproduction of the individual, -1 if it dies before reproducing again.
+	 * Only used when the individual keeps its own clock.
 	 */
-	protected boolean visited[][];
+	protected double reprTime = -1;
+	/**
+	 * The index in the path of each cell of the grid visited by the individual, which takes space
+	 * proportional to the length of the path instead of to the size of the grid. The entries of cells cut from
+	 * the path by loop erasure are left behind, and told apart because the path has another cell at their index.
+	 * A child is born without it, and builds it from its path the first time it looks up a cell.
+	 */
+	protected CellMap visited;
 	/**
 	 * A boolean that tells whether the final position has been reached (true) or not (false).
 	 * Initialized with a setter.
 	 */
 	protected boolean reachedGoal = false;
+	/**
+	 * A boolean that tells whether the individual is alive (true) or has died (false).
+	 */
+	protected boolean alive = true;
 	/**
 	 * The total cost of the individual's path so far.
 	 */
@@ -54,13 +79,20 @@ public class Individual {
 	 */
 	protected Population pop; //the population where the individual belongs
 	/**
-	 * the current position of the individual within the grid.
+	 * the index of the cell of the current position of the individual within the grid, -1 until the
+	 * population has a grid.
+	 */
+	protected int cell = -1;
+	/**
+	 * the node of the last point of the path traversed by the individual so far, null if the path is empty.
+	 * The path is shared with the relatives of the individual in the tree of PathNodes.
 	 */
-	protected Point position;
+	protected PathNode path = null;
 	/**
-	 * the list of points that constitutes the path traversed by the individual so far.
+	 * Handles to the events of the individual that are waiting in the PEC. Kept by PECs that
+	 * need to find the events of an individual without searching for them.
 	 */
-	protected List<Point> path = new LinkedList<Point>();
+	protected List<Event> pendingEvents = new ArrayList<Event>(3);
 	
 	/**
 	 *Constructor for an Individual.
@@ -70,21 +102,47 @@ public class Individual {
 	 */
 	Individual( Point pos, Population pop) {
 		this.id = pop.nextID;
-		this.position = new Point(pos.getX(), pos.getY());	
 		this.pop = pop;
 		pop.nextID++;
 		
 		if(pop.grid != null) {
+			this.cell = pop.grid.toCell(pos);
 			this.newVisitedHist();
 		}
 	}
 	
+	/**
+	 *Constructor for the child of an Individual, in a given cell of the grid of the population.
+	 *The id is set according to the next ID of the population, and the path is set by the parent.
+	 * @param cell is the index of the initial cell of the individual in the grid.
+	 * @param pop is the population where the individual belongs.
+	 */
+	Individual( int cell, Population pop) {
+		this.id = pop.nextID;
+		this.cell = cell;
+		this.pop = pop;
+		pop.nextID++;
+	}
+	
+	/**
+	 *Constructor for a detached Individual, that belongs to no population and has no position.
+	 *Such individuals only serve as owners of events in tools that exercise the PECs outside a simulation.
+	 * @param id is the id of the individual.
+	 */
+	public Individual(int id) {
+		this.id = id;
+	}
+	
 	/**
 	 *This method allows the individual to reproduce.
 	 *It starts by creating a new instance of Individual, the child. The child
 	 *always receives the first 90% of the parent's path, and a fraction comfort
-	 *of the remaining 10% is also given. The child's parameter are updated and the
+	 *of the remaining 10% is also given. The child points to the node of the last point
+	 *it receives, from which it takes its position, length and cost, and the
 	 *child is added to the same population of the parent.
+	 *The cells of the path are not marked as visited by the child here, so that reproducing takes
+	 *O(log n) time however long the path is: the child marks them on its first move, and never if it
+	 *dies before moving.
 	 *@return The child of the indiviudal.
 	 */
 	protected Individual makeChild() {
@@ -95,22 +153,21 @@ public class Individual {
 		int pathLength = getPathLen();
 		
 		//create a new individual
-		Individual child = new Individual( this.position, this.pop);
+		Individual child = new Individual( this.cell, this.pop);
 		
 		//compute the chunk of the parent's path to copy to the child
 		chunk = (int) Math.ceil( 0.9 * pathLength + comfort * 0.1 * pathLength );
 
-		//copy the parent's path and update the child's parameters
-		//probably not the most efficient way...
-		int i = 0;	
-		for(Point p : path) {
-			if(i < chunk) {
-				child.setPosition( new Point( p.getX() , p.getY() ) );
-				child.update();
-				i++;
-			}
-			else
-				break;	
+		//share the chunk of the parent's path and update the child's parameters
+		if(chunk > 0) {
+			child.setPath( path.ancestor( chunk - 1 ) );
+			child.setPosition( child.path.cell );
+			child.cost = child.path.cost;
+			child.length = child.path.depth;
+			child.reachedGoal = child.path.goal;
+			
+			child.updateDist();
+			child.updateComfort();
 		}
 							
 		//add child to the population where it lives
@@ -124,8 +181,15 @@ public class Individual {
 	 * @param pos the Point to be set as the individual's new position.
 	 */
 	protected void setPosition(Point pos) {
-		this.position.setX(pos.getX());
-		this.position.setY(pos.getY());
+		this.cell = pop.grid.toCell(pos);
+	}
+	
+	/**
+	 * A setter for the Individual's position given by the index of its cell in the grid.
+	 * @param cell the index of the cell to be set as the individual's new position.
+	 */
+	protected void setPosition(int cell) {
+		this.cell = cell;
 	}
 	
 	/**
@@ -139,20 +203,16 @@ public class Individual {
 		//if the current position has been visited remove the path loop
 		if( currPosVisited() ) {
 			removePathLoop();
-		//add new position as visited
+		//add new position to the path, as visited
 		}else {
-			setVisited(position);
 			updatePath();
-			updateLength();
-			if(path.size() >= 2)
-				updateCost( path.get(path.size()-2), path.get(path.size()-1));
 		}
 		updateDist();
 		updateComfort();
 		
 		//check if the individual has reached the goal position
-		if( reachedGoal == false && position.equals(pop.goal) ) reachedGoal = true;
-		if(pop.sim.goalReached == false && position.equals(pop.goal)) pop.sim.goalReached = true;
+		if( reachedGoal == false && cell == pop.grid.goalCell ) reachedGoal = true;
+		if(pop.sim.goalReached == false && cell == pop.grid.goalCell) pop.sim.goalReached = true;
 	}
 	
 	/**
@@ -160,115 +220,117 @@ public class Individual {
 	 *the distance between it's position and the goal.
 	 */
 	protected void updateDist() {
-		this.dist = pop.grid.getDistanceToGoal(this.position);
+		this.dist = pop.grid.getDistanceToGoal(this.cell);
 	}
 	
 	/**
 	 *This method updates the path of the individual by adding it's current position
-	 *to the path.
+	 *to the path, marked as visited at its index, and takes the length and cost of the new path
+	 *from its last node.
 	 */
 	protected void updatePath() {
-		Point p = new Point( this.position.getX(), this.position.getY() );
-		path.add( p );
+		
+		int stepCost = path == null ? 0 : pop.grid.getStepCost(path.cell, cell);
+		PathNode next = pop.paths.extend( path, cell, stepCost, cell == pop.grid.goalCell );
+		pop.paths.release( path );
+		path = next;
+		visited.put( cell, path.depth );
+		
+		length = path.depth;
+		cost = path.cost;
 	}
 	
 	/**
-	 *This method updates the length of the individual's path by one or by 0 if the
-	 *path has length 1.
+	 *This method updates the comfort of an individual according to it's parameters,
+	 *and the distribution of the comfort of its population if it belongs to one.
 	 */
-	protected void updateLength() {
-		//if no step has been given the length is zero
-		if(this.path.size() == 1) length = 0;
-		//otherwise increase by one
-		else this.length++;
+	protected void updateComfort() {
+	
+		double aux1 =  1 - (double)(cost - length + 2)/( (pop.grid.cmax - 1) * length + 3 );
+		double aux2 =  1 - (double) dist / pop.grid.distScale  ;
+		double newComfort = (Math.pow(aux1, pop.comfortParam) * Math.pow(aux2, pop.comfortParam));
+		
+		if(index >= 0)
+			pop.comforts.update(comfort, newComfort);
+		this.comfort = newComfort;
 	}
 	
 	/**
-	 *This method updates the cost of the individual by adding the cost of a step
-	 *to the previous cost.
-	 *@param origin the initial point of the step.
-	 *@param destination the final point of the step.
+	 *This method removes loops from the path. It must be called in the moment
+	 *when a loop is detected. The path is cut at the index of the point of origin of the loop,
+	 *whose node then holds the length and cost of the individual, in O(log n) time.
 	 */
-	protected void updateCost(Point origin, Point destination) {
+	protected void removePathLoop() {
 		
-		int pathSize = getPathLen();
+		//delete the path from the origin of the loop on
+		setPath( path.ancestor( pathIndexOf( cell ) ) );
 		
-		if(pathSize == 1) return;
+		this.length = path.depth;
+		this.cost = path.cost;
 		
-		cost = cost + pop.grid.getStepCost(origin, destination);
-	
+		//the entries of the cells cut from the path are dropped when they outnumber the cells in the path
+		if(visited.size() > 2 * getPathLen() + 16)
+			indexPath();
 	}
 	
 	/**
-	 *This method updates the comfort of an individual according to it's parameters
+	 *This method makes the individual hold another node of the trie of paths of its population,
+	 *releasing the node it held.
+	 *@param node the node of the last point of the new path, or null for an empty path.
 	 */
-	protected void updateComfort() {
-	
-		double aux1 =  1 - (double)(cost - length + 2)/( (pop.grid.cmax - 1) * length + 3 );
-		double aux2 =  1 - (double) dist / ( pop.grid.dimN + pop.grid.dimM + 1 )  ;
-		this.comfort = (Math.pow(aux1, pop.comfortParam) * Math.pow(aux2, pop.comfortParam));
+	protected void setPath(PathNode node) {
+		
+		pop.paths.retain( node );
+		pop.paths.release( path );
+		path = node;
 	}
 	
 	/**
-	 *This method removes loops from the path. It must be called in the moment
-	 *when a loop is detected. It starts by deleting the path from the point of origin
-	 *of the loop on and then updates the length and cost of the individual.
+	 *This method finds the index of a cell in the path of the individual.
+	 *@param cell the index of the cell in the grid.
+	 *@return the index of the cell in the path, or -1 if the path does not go through the cell.
 	 */
-	protected void removePathLoop() {
+	protected int pathIndexOf(int cell) {
 		
-		//get the index of the point where the loop starts
-		int deletePoint = this.path.indexOf(this.position);
-				
-		//delete the path from the origin of the loop on
-		int i = 0;	
-		for(Iterator<Point> iter = path.iterator(); iter.hasNext(); ) {
-			Point point = iter.next();
-			if( i <= deletePoint ) {
-				i++;
-				continue;
-			}
-			setNotVisited(point);
-			iter.remove();	
-		} 
+		//a child marks the cells of its path on its first lookup
+		if(visited == null)
+			indexPath();
 		
-		//this.cost = this.path.size();
-		this.length = this.path.size()-1;
+		int index = visited.get(cell);
 		
-		//compute the cost again (there must be a better way of doing it...)
-		this.cost = 0;
-		Point prevPoint = getPathFirst();
-		for(Iterator<Point> iter = path.iterator(); iter.hasNext(); ) {
-			
-			Point presPoint = iter.next();
-			
-			updateCost(prevPoint, presPoint);
-			
-			prevPoint = presPoint;
-		} 
+		//the entry may have been left behind by a loop that was removed
+		if(index < 0 || path == null || index > path.depth || path.ancestor(index).cell != cell)
+			return -1;
+		return index;
+	}
+	
+	/**
+	 *This method fills the visited cells again with the cells of the path and their indices only,
+	 *creating the map of visited cells if the individual has none yet.
+	 */
+	protected void indexPath() {
 		
+		if(visited == null)
+			visited = new CellMap( getPathLen() );
+		else
+			visited.clear();
+		for(PathNode node = path; node != null; node = node.parent)
+			visited.put( node.cell, node.depth );
 	}
 	
 	/**
 	 * Makes a complete copy of the individual's path.
-	 * @return A LinkedList of Points representing the path.
+	 * @return A List of Points representing the path.
 	 */
 	protected List<Point> copyPath(){
 
-		List<Point> pathCopy = new LinkedList<Point>();
+		Point[] pathCopy = new Point[getPathLen()];
 		
-		for(Point p : path) {
-			pathCopy.add( new Point( p.getX() , p.getY() ) );
+		for(PathNode node = path; node != null; node = node.parent) {
+			pathCopy[node.depth] = pop.grid.toPoint( node.cell );
 		}
 		
-		return pathCopy;
-	}
-	
-	/**
-	 *This method retrieves the first point in the Individual's path.
-	 *@return The first point of the path of the individual.
-	 */
-	protected Point getPathFirst() {
-		return path.get(0);
+		return new ArrayList<Point>( Arrays.asList(pathCopy) );
 	}
 	
 	/**
@@ -278,39 +340,113 @@ public class Individual {
 	 * @return An int with the length of the path.
 	 */
 	protected int getPathLen() {
-		return this.path.size();
+		return path == null ? 0 : path.depth + 1;
 	}
 	
 	/**
-	 *This method creates a new table of visited with the dimensions of the grid where the individual lives.
+	 *This method creates a new, empty, map of visited cells.
 	 */
 	protected void newVisitedHist() {
-		visited = new boolean[pop.grid.dimM][pop.grid.dimN]; //default as false
+		visited = new CellMap( 16 );
 	}
 	
 	/**
-	 *Setter for the visited table as true.
-	 *@param p the point to be marked as visited.
+	 *This method tells whether the current position of the Individual has been reached.
+	 *@return boolean that is set as true if the position has been visited and as false otherwise.
 	 */
-	protected void setVisited(Point p) {
-		visited[p.getY()-1][p.getX()-1] = true;
+	protected boolean currPosVisited() {
+		return pathIndexOf( cell ) >= 0;
 	}
 	
 	/**
-	 *Setter for the visited table as false.
-	 *@param p the point to be marked as not visited.
+	 *This method tells which of the next death, move and reproduction of the individual comes first,
+	 *when the individual keeps its own clock.
+	 *@return the kind of the next event, as coded in StochasticEvent.
 	 */
-	protected void setNotVisited(Point p) {
+	protected byte nextKind() {
 		
-		visited[p.getY()-1][p.getX()-1] = false;
+		byte kind = StochasticEvent.DEATH;
+		double time = deathTime;
+		
+		if(moveTime >= 0 && moveTime < time) {
+			kind = StochasticEvent.MOVE;
+			time = moveTime;
+		}
+		if(reprTime >= 0 && reprTime < time) {
+			kind = StochasticEvent.REPRODUCTION;
+		}
+		return kind;
 	}
 	
 	/**
-	 *This method tells whether the current position of the Individual has been reached.
-	 *@return boolean that is set as true if the position has been visited and as false otherwise.
+	 *This method retrieves the time of the first of the next death, move and reproduction of the individual,
+	 *when the individual keeps its own clock.
+	 *@return the time of the next event.
 	 */
-	protected boolean currPosVisited() {
-		return visited[this.position.getY()-1][this.position.getX()-1];
+	protected double nextTime() {
+		
+		switch( nextKind() ) {
+			case StochasticEvent.MOVE:
+				return moveTime;
+			case StochasticEvent.REPRODUCTION:
+				return reprTime;
+			default:
+				return deathTime;
+		}
+	}
+	
+	/**
+	 *Getter for the alive field.
+	 *@return true if the individual is alive and false if it has died.
+	 */
+	public boolean isAlive() {
+		return alive;
+	}
+	
+	/**
+	 *This method marks the individual as dead. The pending events of a dead individual
+	 *are never simulated. Its path is released from the trie of its population but kept
+	 *by the individual, so the event that killed it can still report it.
+	 */
+	public void markDead() {
+		
+		if(!alive) return;
+		alive = false;
+		
+		//the trie keeps only the paths of the living
+		if(pop != null) pop.paths.release( path );
+	}
+	
+	/**
+	 *Getter for the handles to the events of the individual waiting in the PEC.
+	 *@return the list of pending events of the individual.
+	 */
+	public List<Event> getPendingEvents() {
+		return pendingEvents;
+	}
+	
+	/**
+	 *This method drops the handle to an event that is no longer waiting in the PEC.
+	 *The handle is compared by reference, since events of the same individual may be equal.
+	 *@param ev the event that left the PEC.
+	 *@return true if the handle was found and false otherwise.
+	 */
+	public boolean removePendingEvent(Event ev) {
+		for(int i = 0; i < pendingEvents.size(); i++) {
+			if(pendingEvents.get(i) == ev) {
+				pendingEvents.remove(i);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 *Getter for the slot field.
+	 *@return the slot of the individual in its population.
+	 */
+	public int getSlot() {
+		return slot;
 	}
 	
 	/**
@@ -326,7 +462,8 @@ public class Individual {
 	 */
 	@Override
 	public String toString() {
-		return "\nID: " + id + "; Cost: " + cost + "; Comf: " + comfort + "; Pos: " + position;
+		Object pos = (pop == null || pop.grid == null || cell < 0) ? null : pop.grid.toPoint(cell);
+		return "\nID: " + id + "; Cost: " + cost + "; Comf: " + comfort + "; Pos: " + pos;
 	}
 
 }
@@ -1,8 +1,8 @@
 package stochasticSimulation;
 
 /**
- *The Move class is a subclass of StochasticEvent. It is associated with an Individual and a Grid and it's
- *simulation causes the associated individual to take a step in the grid, from it's current position.
+ *The Move class is a subclass of StochasticEvent. It is associated with an Individual and it's
+ *simulation causes the associated individual to take a step in the grid of its population, from it's current position.
  * Move instances have a timestamp that is defined by the sum of the current time of the simulation with a number
  *drawn from an exponential distribution. 
  * 
@@ -11,32 +11,42 @@ package stochasticSimulation;
 class Move extends StochasticEvent{
 	
 	/**
-	 * The grid where the move will take place.
+	 * Constructor for a Move object. Moves are created by the EventPool of the simulation and
+	 * associated with an individual by init().
 	 */
-	Grid grid; //the grid where the step is taking place
+	Move(){
+		type = "move";
+	}
 	
 	/**
-	 * Constructor for a Move object.
-	 * It associates the Move with an Individual and a Grid. It also computes the time of the move by
-	 * adding the currentTime of the simulation where the move takes place at the time the move is created with
-	 * a number drawn from an exponential distribution. If the time of the move is posterior to the death time
-	 * of the associated Individual the time is set to -1.
+	 * This method (re)initializes a Move, associating it with an Individual and with the time of the move,
+	 * computed by newTime().
 	 * 
 	 * @param ind the Individual that will make the move.
-	 * @param grid the Grid where the move is taking place.
-	 *
+	 * @param time the time of the move.
 	 */
-	Move( Individual ind, Grid grid ){
-		
-		type = "move";
+	void init( Individual ind, double time ){
 		this.ind = ind;
+		this.time = time;
+	}
+	
+	/**
+	 * This method computes the time of the next move of an individual by adding the currentTime of the simulation
+	 * with a number drawn from an exponential distribution. If the time of the move is posterior to the death time
+	 * of the Individual the time is set to -1.
+	 * 
+	 * @param ind the Individual that will make the move.
+	 * @return the time of the move, or -1 if the individual dies before it.
+	 */
+	static double newTime( Individual ind ) {
 		
-		time = sim.currentTime + StochasticEvent.expRandom( (1 - Math.log(this.ind.comfort)) * (double)sim.moveParam );
+		double time = sim.currentTime + StochasticEvent.expRandom( (1 - Math.log(ind.comfort)) * (double)sim.moveParam );
 		
 		//if the time is set after the individual's death set time to -1
 		if(time >= ind.deathTime) {
 			time = -1;
-		}	
+		}
+		return time;
 	}
 	
 	/**
@@ -49,7 +59,7 @@ class Move extends StochasticEvent{
 		StochasticSimulation.eventCounter++;
 					
 		//add the next move of the individual
-		sim.pec.addEvent( new Move( ind, grid ) );
+		sim.addEvent( sim.pool.newMove( ind ) );
 		
 		//take a step in the grid
 		ind.pop.grid.step( ind );
@@ -0,0 +1,19 @@
+package stochasticSimulation;
+
+/**
+ * The interface for the policies with which a Grid chooses the move of an individual among the valid moves
+ * from its cell. The moves are coded as follows: 0 - up ; 1 - right ; 2 - down ;  3 - left
+ *
+ * @author Manuel Serra
+ */
+interface MovePolicy {
+
+	/**
+	 * This method chooses a move from a cell.
+	 * @param grid the grid where the move is made.
+	 * @param cell the index of the cell where the move is taking place from.
+	 * @param mask the valid moves from the cell, with bit d set if the move d is valid. Never 0.
+	 * @return the code of the move chosen.
+	 */
+	int chooseMove(Grid grid, int cell, int mask);
+}
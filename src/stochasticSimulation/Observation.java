@@ -72,6 +72,8 @@ class Observation extends DeterministicEvent {
 		System.out.println("\t\t\tPresent instant:\t" + Math.floor(sim.currentTime));
 		System.out.println("\t\t\tNumber of realised events:\t" + StochasticSimulation.eventCounter);
 		System.out.println("\t\t\tPopulation size:\t" + sim.pop.v);
+		System.out.println("\t\t\tComfort median, p90, p99:\t" + sim.pop.comfortQuantile(0.5) + ", "
+				+ sim.pop.comfortQuantile(0.9) + ", " + sim.pop.comfortQuantile(0.99));
 		System.out.println("\t\t\tFinal point has been hit:\t" + goalReached);
 		System.out.println("\t\t\tPath of the best fit individual:\t" + Arrays.toString( (shortestPath.toArray()) ).replace("[","{").replace("]", "}") );
 		if(goalReached)
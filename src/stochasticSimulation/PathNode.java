@@ -0,0 +1,100 @@
+package stochasticSimulation;
+
+/**
+ * The PathNode class is a node of the tree of all the paths of a Population. Each node is a point of a path,
+ * packed into the index of its cell in the Grid, and points to the node of the previous point, so the path of an
+ * individual is given by the node of its last point and a child shares the nodes of the prefix it receives from
+ * its parent. The nodes are interned in the PathTrie of the Population, which links each node to its children and
+ * counts the holders of the node, and the points of a node are never changed.
+ * Each node caches the length and cost of the path up to it, and keeps a jump pointer to an ancestor
+ * (E. Myers, 1983) so that the node at any depth of a path is found in O(log n) steps.
+ *
+ * @author Manuel Serra
+ */
+class PathNode {
+
+	/**
+	 * The index in the grid of the cell of the point of the path.
+	 */
+	final int cell;
+	/**
+	 * The node of the previous point of the path, null for the first point.
+	 */
+	final PathNode parent;
+	/**
+	 * An ancestor of the node, used to skip parts of the path when looking for a given depth.
+	 */
+	final PathNode jump;
+	/**
+	 * The position of the point in the path, 0 for the first point, which is also the length of the path up to it.
+	 */
+	final int depth;
+	/**
+	 * The cost of the path up to the point.
+	 */
+	final int cost;
+	/**
+	 * Tells whether the path up to the point goes through the goal.
+	 */
+	final boolean goal;
+	/**
+	 * The nodes of the paths that extend this one by a point, as interned in the PathTrie, null if there are none.
+	 */
+	PathNode[] children;
+	/**
+	 * The number of nodes in children.
+	 */
+	int nChildren = 0;
+	/**
+	 * The number of individuals that hold the node plus the number of its children.
+	 */
+	int refs = 0;
+
+	/**
+	 * Constructor for a PathNode.
+	 * @param cell the index in the grid of the cell of the point of the path.
+	 * @param parent the node of the previous point, or null for the first point.
+	 * @param stepCost the cost of the step from the previous point, ignored for the first point.
+	 * @param isGoal true if the point is the goal.
+	 */
+	PathNode(int cell, PathNode parent, int stepCost, boolean isGoal) {
+
+		this.cell = cell;
+		this.parent = parent;
+
+		if(parent == null) {
+			depth = 0;
+			cost = 0;
+			goal = isGoal;
+			jump = this;
+			return;
+		}
+
+		depth = parent.depth + 1;
+		cost = parent.cost + stepCost;
+		goal = parent.goal || isGoal;
+
+		//the jumps double in length when two jumps of the same length follow each other
+		if( parent.jump.depth > 0 && parent.depth - parent.jump.depth == parent.jump.depth - parent.jump.jump.depth )
+			jump = parent.jump.jump;
+		else
+			jump = parent;
+	}
+
+	/**
+	 * This method finds the node of the path at a given depth.
+	 * @param d the depth of the node, at most the depth of this node.
+	 * @return the ancestor of this node (or this node) at depth d.
+	 */
+	PathNode ancestor(int d) {
+
+		PathNode node = this;
+		while(node.depth > d) {
+			if(node.jump.depth >= d)
+				node = node.jump;
+			else
+				node = node.parent;
+		}
+		return node;
+	}
+}
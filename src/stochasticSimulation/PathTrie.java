@@ -0,0 +1,128 @@
+package stochasticSimulation;
+
+import java.util.Arrays;
+
+/**
+ * The PathTrie class interns the PathNodes of all the individuals of a Population, so that there is at most one
+ * node for each path: the child of a node for a given cell is looked up among the children of the node before
+ * a new one is made. Individuals that follow the same path then hold the same node, their paths are equal only
+ * if their nodes are the same object, and the memory taken by the paths grows with the number of distinct paths
+ * instead of the number of individuals.
+ * Each node counts the individuals that hold it and its children in the trie. A node whose count drops to 0 is
+ * unlinked from its parent, which is released in turn, so the trie only keeps the paths of individuals alive.
+ *
+ * @author Manuel Serra
+ */
+class PathTrie {
+
+	/**
+	 * The nodes of the first points of the paths, which have no parent.
+	 */
+	protected PathNode[] roots = new PathNode[1];
+	/**
+	 * The number of nodes in roots.
+	 */
+	protected int nRoots = 0;
+	/**
+	 * The number of nodes in the trie.
+	 */
+	protected int size = 0;
+
+	/**
+	 * This method retrieves the node of a path extended by one point, making it if it is not in the trie yet.
+	 * The node is retained for the caller.
+	 * @param parent the node of the last point of the path, or null for an empty path.
+	 * @param cell the index in the grid of the cell of the new point.
+	 * @param stepCost the cost of the step from the last point to the new one, ignored for an empty path.
+	 * @param isGoal true if the new point is the goal.
+	 * @return the node of the extended path.
+	 */
+	PathNode extend(PathNode parent, int cell, int stepCost, boolean isGoal) {
+
+		PathNode[] siblings = parent == null ? roots : parent.children;
+		int n = parent == null ? nRoots : parent.nChildren;
+		for(int i = 0; i < n; i++) {
+			if(siblings[i].cell == cell) {
+				siblings[i].refs++;
+				return siblings[i];
+			}
+		}
+
+		PathNode node = new PathNode(cell, parent, stepCost, isGoal);
+		node.refs = 1;
+		size++;
+
+		if(parent == null) {
+			if(nRoots == roots.length)
+				roots = Arrays.copyOf(roots, 2 * nRoots);
+			roots[nRoots++] = node;
+		} else {
+			//each point of a path has at most 4 neighbours, so the children of a node rarely grow past 4
+			if(parent.children == null)
+				parent.children = new PathNode[4];
+			else if(parent.nChildren == parent.children.length)
+				parent.children = Arrays.copyOf(parent.children, 2 * parent.nChildren);
+			parent.children[parent.nChildren++] = node;
+			//the link from the child keeps the parent in the trie
+			parent.refs++;
+		}
+		return node;
+	}
+
+	/**
+	 * This method retains a node for an individual that starts holding it.
+	 * @param node the node, or null for an empty path.
+	 * @return the node.
+	 */
+	PathNode retain(PathNode node) {
+		if(node != null) node.refs++;
+		return node;
+	}
+
+	/**
+	 * This method releases a node held by an individual that no longer holds it. The nodes that are no longer
+	 * held by any individual, nor have children, are unlinked from the trie, from the node towards the root.
+	 * @param node the node, or null for an empty path.
+	 */
+	void release(PathNode node) {
+
+		while(node != null && --node.refs == 0) {
+			PathNode parent = node.parent;
+			if(parent == null) {
+				nRoots = unlink(roots, nRoots, node);
+			} else {
+				parent.nChildren = unlink(parent.children, parent.nChildren, node);
+				if(parent.nChildren == 0) parent.children = null;
+			}
+			size--;
+			node = parent;
+		}
+	}
+
+	/**
+	 * This method retrieves the number of distinct nodes in the trie.
+	 * @return the size of the trie.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * This method removes a node from an array of siblings, moving the last sibling to its place.
+	 * @param siblings the array of siblings.
+	 * @param n the number of siblings in the array.
+	 * @param node the node to be removed.
+	 * @return the number of siblings left.
+	 */
+	protected static int unlink(PathNode[] siblings, int n, PathNode node) {
+
+		for(int i = 0; i < n; i++) {
+			if(siblings[i] == node) {
+				siblings[i] = siblings[n - 1];
+				siblings[n - 1] = null;
+				return n - 1;
+			}
+		}
+		return n;
+	}
+}
@@ -1,10 +1,11 @@
 package stochasticSimulation;
 
 import java.util.Arrays;
-import java.util.LinkedList;
 
 /**
  * The Population class aggregates the list of alive individuals and parameters common to all the Individuals.
+ * The individuals alive are kept next to each other at the start of an array, so adding an individual is
+ * an append and removing one moves the last individual to its place, both in O(1) time.
  * It is also associated with the StochasticSimulation where the individuals are being evolved and with the grid
  * where they live, in case of a shortest path problem.
  * 
@@ -25,17 +26,40 @@ public class Population {
 	 */
 	protected int comfortParam;
 	/**
-	 * The ID to give to the next individual to be born.
+	 * The ID to give to the next individual to be born. IDs are never given twice, so events never refer to
+	 * an individual by an ID that has been given to another one.
 	 */
 	protected int nextID = 0; //the next ID to give to an individual
 	/**
-	 * The goal point in case of a shortest path problem.
+	 * The array containing all the alive individuals at a given moment, in its first v positions.
+	 * The position of each individual is kept in its index.
 	 */
-	protected Point goal = null;
+	protected Individual[] individuals;
 	/**
-	 * The linked list containing all the alive individuals at a given moment.
+	 * The trie where the paths of the individuals alive are interned, so that equal paths are stored once.
 	 */
-	protected LinkedList<Individual> individuals;
+	protected final PathTrie paths = new PathTrie();
+	/**
+	 * The distribution of the comfort of the individuals alive, kept up to date as they are born, die and move.
+	 */
+	protected final ComfortHistogram comforts = new ComfortHistogram();
+	/**
+	 * The individuals alive indexed by their slot. Slots are given to individuals when they join the population
+	 * and are given again to other individuals after they die, so the table is only as large as the largest population.
+	 */
+	protected Individual[] slots = new Individual[16];
+	/**
+	 * The number of slots that have been used.
+	 */
+	protected int nSlots = 0;
+	/**
+	 * A stack with the slots that have been freed by dead individuals.
+	 */
+	protected int[] freeSlots = new int[16];
+	/**
+	 * The number of free slots in the stack.
+	 */
+	protected int nFreeSlots = 0;
 	/**
 	 * The simulation where the individuals of the population are being evolved.
 	 */
@@ -56,44 +80,100 @@ public class Population {
 	 * @param initPos the initial position of the individuals of the population.
 	 */
 	Population(int v, int vmax, int comfortParam, Point initPos){
-		this.v = v;
 		this.vmax = vmax;
-		individuals = new LinkedList<Individual>();
+		individuals = new Individual[Math.max(v, 16)];
 		this.comfortParam = comfortParam;
 		
 		for(int i = 0; i < v; i++) {
-			Individual newInd = new Individual( initPos, this );
-			individuals.add(newInd);		
+			addInd( new Individual( initPos, this ) );
 		}
 	}
 	
 	/**
 	 * This method adds an individual to the Population, providing an API that detaches the functionality
-	 * of the methods from their implementation (as a list).
+	 * of the methods from their implementation (as an array).
 	 * @param ind the individual to be added to the population.
 	 */
 	public void addInd(Individual ind) {
-		individuals.add(ind);
+		if(v == individuals.length)
+			individuals = Arrays.copyOf(individuals, 2 * v);
+		ind.index = v;
+		individuals[v] = ind;
+		comforts.add(ind.comfort);
+		assignSlot(ind);
 		v++;
 	}
 	
 	/**
 	 * This method removes an individual from the Population, providing an API that detaches the functionality
-	 * of the methods from their implementation (as a list).
+	 * of the methods from their implementation (as an array).
 	 * @param ind the individual to be removed from the population.
 	 */
 	public void removeInd(Individual ind) {
-		individuals.remove(ind);
+		ind.markDead();
+		comforts.remove(ind.comfort);
+		
+		//the last individual takes the place of the removed one
 		v--;
+		Individual last = individuals[v];
+		individuals[ind.index] = last;
+		last.index = ind.index;
+		individuals[v] = null;
+		ind.index = -1;
+		
+		releaseSlot(ind);
+	}
+	
+	/**
+	 * This method gives a slot to an individual, reusing the slot of a dead individual if there is one.
+	 * @param ind the individual that joins the population.
+	 */
+	protected void assignSlot(Individual ind) {
+		
+		if(nFreeSlots > 0) {
+			nFreeSlots--;
+			ind.slot = freeSlots[nFreeSlots];
+		} else {
+			if(nSlots == slots.length)
+				slots = Arrays.copyOf(slots, 2 * nSlots);
+			ind.slot = nSlots;
+			nSlots++;
+		}
+		slots[ind.slot] = ind;
+	}
+	
+	/**
+	 * This method frees the slot of an individual that left the population. The events of the individual must
+	 * have been removed before, since the slot may be given to the next individual to be born.
+	 * @param ind the individual that left the population.
+	 */
+	protected void releaseSlot(Individual ind) {
+		
+		if(nFreeSlots == freeSlots.length)
+			freeSlots = Arrays.copyOf(freeSlots, 2 * nFreeSlots);
+		freeSlots[nFreeSlots] = ind.slot;
+		nFreeSlots++;
+		
+		slots[ind.slot] = null;
+		ind.slot = -1;
+	}
+	
+	/**
+	 * This method retrieves the individual alive in a given slot.
+	 * @param slot the slot of the individual.
+	 * @return the individual in the slot, or null if the slot is free.
+	 */
+	public Individual getBySlot(int slot) {
+		return slots[slot];
 	}
 	
 	/**
 	 * This method counts the number of individuals in the Population, providing an API that detaches the functionality
-	 * of the methods from their implementation (as a list).
+	 * of the methods from their implementation (as an array).
 	 * @return an int with the number of individuals in the population.
 	 */
 	public int countPopSize() {
-		return individuals.size();
+		return v;
 	}
 	
 	/**
@@ -102,7 +182,8 @@ public class Population {
 	 */
 	public void setInitPos(Point init) {
 		
-		for(Individual ind : individuals) {
+		for(int i = 0; i < v; i++) {
+			Individual ind = individuals[i];
 			ind.setPosition(init);
 			ind.updatePath();
 			ind.updateDist();
@@ -110,6 +191,24 @@ public class Population {
 		}
 	}
 	
+	/**
+	 * This method finds a quantile of the comfort of the individuals alive, without scanning the population.
+	 * @param q the fraction of the individuals whose comfort is at most the quantile, such as 0.5 for the median.
+	 * @return the quantile, to the width of the buckets of the ComfortHistogram.
+	 */
+	public double comfortQuantile(double q) {
+		return comforts.quantile(q);
+	}
+	
+	/**
+	 * This method counts the individuals alive whose comfort is at least a given threshold, without scanning the population.
+	 * @param threshold the threshold of the comfort.
+	 * @return the number of individuals, to the width of the buckets of the ComfortHistogram.
+	 */
+	public int countComfortAtLeast(double threshold) {
+		return comforts.countAtLeast(threshold);
+	}
+	
 	/**
 	 * A setter for the Grid where the population lives.
 	 * @param grid the grid to be associated with the population.
@@ -117,10 +216,10 @@ public class Population {
 	public void setGrid(Grid grid) {
 		this.grid = grid;
 		
-		//when a grid is associated with a population, the visited matrix of the population's individuals is initialized
-		for(Individual ind : individuals) {
-			ind.newVisitedHist();
-			ind.setVisited(ind.position);
+		//when a grid is associated with a population, the visited cells of the population's individuals are initialized
+		//the cells are marked as visited when the individuals are given their initial position
+		for(int i = 0; i < v; i++) {
+			individuals[i].newVisitedHist();
 		}
 		
 	}
@@ -133,20 +232,12 @@ public class Population {
 		this.sim = sim;
 	}
 	
-	/**
-	 * A setter for the goal of the population.
-	 * @param goal the point to be set as goal.
-	 */
-	public void setGoal(Point goal) {
-		this.goal = goal;
-	}
-	
 	/**
 	 * Redefinition of the toString method to present the whole population and it's parameters.
 	 */
 	@Override
 	public String toString() {
-		return "\nPopulation\nv: " + v + "; vmax: " + vmax + "; Individuals:" + Arrays.toString(individuals.toArray());
+		return "\nPopulation\nv: " + v + "; vmax: " + vmax + "; Individuals:" + Arrays.toString(Arrays.copyOf(individuals, v));
 	}
 	
 	
@@ -11,26 +11,43 @@ package stochasticSimulation;
 class Reproduction extends StochasticEvent {
 	
 	/**
-	 * Reproduction constructor.
-	 * It associates the Reproduction with an Individual. It also computes the time of the move by
-	 * adding the currentTime of the simulation where the reproduction takes place at the time the reproduction is created with
-	 * a number drawn from an exponential distribution. If the time of the reproduction is posterior to the death time
-	 * of the associated Individual the time is set to -1.
+	 * Reproduction constructor. Reproductions are created by the EventPool of the simulation and
+	 * associated with an individual by init().
+	 */
+	Reproduction(){
+		type = "repr";
+	}
+	
+	/**
+	 * This method (re)initializes a Reproduction, associating it with an Individual and with the time of the
+	 * reproduction, computed by newTime().
 	 * 
 	 * @param ind the Individual that will reproduce.
+	 * @param time the time of the reproduction.
 	 */
-	Reproduction( Individual ind ){
-		
-		type = "repr";
+	void init( Individual ind, double time ){
 		this.ind = ind;
+		this.time = time;
+	}
+	
+	/**
+	 * This method computes the time of the next reproduction of an individual by adding the currentTime of the simulation
+	 * with a number drawn from an exponential distribution. If the time of the reproduction is posterior to the death time
+	 * of the Individual the time is set to -1.
+	 * 
+	 * @param ind the Individual that will reproduce.
+	 * @return the time of the reproduction, or -1 if the individual dies before it.
+	 */
+	static double newTime( Individual ind ) {
 		
-		time = sim.currentTime + 
-				StochasticEvent.expRandom( (1 - Math.log(this.ind.comfort)) * sim.reprParam );
+		double time = sim.currentTime + 
+				StochasticEvent.expRandom( (1 - Math.log(ind.comfort)) * sim.reprParam );
 		
 		//if the time is set after the individual's death set time to -1
 		if(time > ind.deathTime) {
 			time = -1;
-		}	
+		}
+		return time;
 	}
 	
 	/**
@@ -43,17 +60,17 @@ class Reproduction extends StochasticEvent {
 		StochasticSimulation.eventCounter++;
 			
 		//add the next reproduction of the parent
-		sim.pec.addEvent( new Reproduction( this.ind ) );
+		sim.addEvent( sim.pool.newReproduction( this.ind ) );
 		
 		//create the parent's child
 		Individual child = this.ind.makeChild();
 					
 		//add child's first move, first reproduction and death to the PEC		
-		sim.pec.addEvent( new Death( child ) );
+		sim.addEvent( sim.pool.newDeath( child ) );
 		
-		sim.pec.addEvent( new Move( child, child.pop.grid ) );
+		sim.addEvent( sim.pool.newMove( child ) );
 
-		sim.pec.addEvent( new Reproduction( child ) );
+		sim.addEvent( sim.pool.newReproduction( child ) );
 		
 	}
 }
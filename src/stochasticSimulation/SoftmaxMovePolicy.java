@@ -0,0 +1,65 @@
+package stochasticSimulation;
+
+/**
+ * The SoftmaxMovePolicy biases the moves of the individuals towards the goal. Each valid move is chosen with
+ * probability proportional to exp(-d / temperature), where d is the distance to the goal of the cell it leads to,
+ * as measured by the grid. Low temperatures make the individuals walk straight to the goal, and high temperatures
+ * make them walk at random as with the UniformMovePolicy.
+ *
+ * @author Manuel Serra
+ */
+class SoftmaxMovePolicy implements MovePolicy {
+
+	/**
+	 * The temperature of the policy.
+	 */
+	protected final double temperature;
+	/**
+	 * The weight of each move, kept between choices so that they allocate nothing.
+	 */
+	protected final double[] weights = new double[4];
+
+	/**
+	 * Constructor for a SoftmaxMovePolicy.
+	 * @param temperature the temperature of the policy, which must be positive.
+	 */
+	SoftmaxMovePolicy(double temperature) {
+		if(!(temperature > 0))
+			throw new IllegalArgumentException("temperature must be positive: " + temperature);
+		this.temperature = temperature;
+	}
+
+	/**
+	 * This method chooses a valid move with probability given by the softmax of the distances to the goal.
+	 * The distances are taken relative to the smallest distance among the cells the moves lead to, so the
+	 * largest weight is exactly 1 and no weight overflows, however low the temperature.
+	 */
+	@Override
+	public int chooseMove(Grid grid, int cell, int mask) {
+
+		//the distance to the goal of the cell of each move is kept in its weight until the smallest is known
+		int min = Integer.MAX_VALUE;
+		for(int m = mask; m != 0; m &= m - 1) {
+			int move = Integer.numberOfTrailingZeros(m);
+			int dist = grid.getDistanceToGoal( cell + grid.moveOffsets[move] );
+			weights[move] = dist;
+			min = Math.min(min, dist);
+		}
+
+		double total = 0;
+		for(int m = mask; m != 0; m &= m - 1) {
+			int move = Integer.numberOfTrailingZeros(m);
+			weights[move] = Math.exp( (min - weights[move]) / temperature );
+			total += weights[move];
+		}
+
+		double u = StochasticSimulation.random.nextDouble() * total;
+		int move = 0;
+		for(int m = mask; m != 0; m &= m - 1) {
+			move = Integer.numberOfTrailingZeros(m);
+			u -= weights[move];
+			if(u < 0) break;
+		}
+		return move;
+	}
+}
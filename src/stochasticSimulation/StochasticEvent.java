@@ -10,6 +10,23 @@ package stochasticSimulation;
  */
 public abstract class StochasticEvent implements Event{
 	
+	/**
+	 * The code of the Death kind of event, used where events are not kept as objects.
+	 */
+	static final byte DEATH = 0;
+	/**
+	 * The code of the Move kind of event, used where events are not kept as objects.
+	 */
+	static final byte MOVE = 1;
+	/**
+	 * The code of the Reproduction kind of event, used where events are not kept as objects.
+	 */
+	static final byte REPRODUCTION = 2;
+	/**
+	 * The number of kinds of events associated with an individual.
+	 */
+	static final int KINDS = 3;
+	
 	/**
 	 * The timestamp of the event.
 	 */
@@ -26,6 +43,10 @@ public abstract class StochasticEvent implements Event{
 	 * A stochastic event may have an associated individual;
 	 */
 	protected Individual ind; //a stochastic event might be associated with an individual
+	/**
+	 * The position of the event in the PEC where it is waiting, or -1 if it is not in an indexed PEC.
+	 */
+	protected int pecIndex = -1;
 	
 	/**
 	 * Leaves the implementation of the simulate() method, defined in the interface for the subclasses.
@@ -42,6 +63,31 @@ public abstract class StochasticEvent implements Event{
 		return -m*Math.log(1.0-next);
 	}
 	
+	/**
+	 * This method retrieves a random integer from a Poisson distribution with mean m, the number of
+	 * events of a given rate that happen in a time interval. Small means are drawn exactly by multiplying
+	 * uniform numbers, large means are approximated by a normal distribution.
+	 * @param m the mean of the Poisson distribution.
+	 * @return A random number drawn from the distribution.
+	 */
+	public static int poissonRandom(double m) {
+		
+		if(m <= 0) return 0;
+		
+		if(m < 30) {
+			double limit = Math.exp(-m);
+			double prod = StochasticSimulation.random.nextDouble();
+			int k = 0;
+			while(prod > limit) {
+				prod *= StochasticSimulation.random.nextDouble();
+				k++;
+			}
+			return k;
+		}
+		
+		return (int) Math.max(0, Math.round( m + Math.sqrt(m) * StochasticSimulation.random.nextGaussian() ));
+	}
+	
 	/**
 	 * A getter for the timestamp.
 	 * @return Returns the timestamp.
@@ -50,6 +96,22 @@ public abstract class StochasticEvent implements Event{
 		return time;
 	}
 	
+	/**
+	 * A getter for the position of the event in the PEC.
+	 * @return An int with the position of the event in the PEC, -1 if it isn't in one.
+	 */
+	public int getPecIndex() {
+		return pecIndex;
+	}
+	
+	/**
+	 * A setter for the position of the event in the PEC. Only to be used by the PEC.
+	 * @param index the new position of the event in the PEC.
+	 */
+	public void setPecIndex(int index) {
+		pecIndex = index;
+	}
+	
 	/**
 	 * A setter for the stochastic simulation associated with the event.
 	 * @param sim the simulation to be associated with the event.
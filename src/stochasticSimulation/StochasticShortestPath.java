@@ -21,6 +21,11 @@ public class StochasticShortestPath extends StochasticSimulation{
 	 * The shortestPath found so far.
 	 */
 	protected List<Point> shortestPath = new LinkedList<Point>();
+	/**
+	 * A boolean that tells whether each individual keeps a single Clock in the PEC (true) instead of
+	 * separate Death, Move and Reproduction events (false).
+	 */
+	protected boolean singleClock = false;
 	
 	/**
 	 * Constructor for a StochasticShorstestpath instance. It uses
@@ -31,6 +36,24 @@ public class StochasticShortestPath extends StochasticSimulation{
 	 * @param deathParam the parameter for the mean of Death events.
 	 * @param reprParam the parameter for the mean of Reproduction events.
 	 * @param simulationTime the final time of the simulation.
+	 * @param pecType the name of the PEC implementation to use, or null for the default one.
+	 */
+	StochasticShortestPath(Population pop, Grid grid, int moveParam, 
+							int deathParam, int reprParam, double simulationTime, String pecType){
+		
+		super( pop, moveParam, deathParam, reprParam, simulationTime, pecType);
+		this.grid = grid;
+	}
+	
+	/**
+	 * Constructor for a StochasticShorstestpath instance that keeps no events, and so has no PEC, for
+	 * the subclasses that draw the events of the individuals from their rates instead.
+	 * @param pop the population of the simulation.
+	 * @param grid the grid where the simulation is taking place.
+	 * @param moveParam the parameter for the mean of Move events.
+	 * @param deathParam the parameter for the mean of Death events.
+	 * @param reprParam the parameter for the mean of Reproduction events.
+	 * @param simulationTime the final time of the simulation.
 	 */
 	StochasticShortestPath(Population pop, Grid grid, int moveParam, 
 							int deathParam, int reprParam, double simulationTime){
@@ -46,16 +69,27 @@ public class StochasticShortestPath extends StochasticSimulation{
 	 * From that point on the initial population evolves inside a while loop, where their events are simulated.
 	 * By the end of the simulation the best individuals should have gone through the ideal path between the two 
 	 * predetermined points.
+	 * If the simulation uses a PrimitivePEC the events are not kept as objects and simulatePrimitive() is run instead.
 	 */
 	public void simulate() {
 		
+		if(primitivePec != null) {
+			simulatePrimitive();
+			return;
+		}
+		
 		int lastObs = 0;
 		
 		//add the first events to the PEC
-		for(Individual ind : pop.individuals) {						
-			pec.addEvent( new Death( ind ));
-			pec.addEvent( new Move( ind, grid ));
-			pec.addEvent(new Reproduction( ind ));
+		for(int i = 0; i < pop.v; i++) {
+			Individual ind = pop.individuals[i];
+			if(singleClock) {
+				addEvent( new Clock( ind ));
+				continue;
+			}
+			addEvent( pool.newDeath( ind ));
+			addEvent( pool.newMove( ind ));
+			addEvent( pool.newReproduction( ind ));
 		}
 					
 		//get the first event from the pec
@@ -71,16 +105,18 @@ public class StochasticShortestPath extends StochasticSimulation{
 				evE.simulateEvent();
 			}
 			
-			//simulate the current event
-			currentEv.simulateEvent();
+			//the epidemic may have killed the individual of the current event, in which case it is dropped
+			if( currentEv.getInd().isAlive() ) {
+				
+				//simulate the current event
+				currentEv.simulateEvent();
+				
+				//check if there is need to update the best path so far
+				updateBest( currentEv.getInd() );
+			}
 			
-			//check if there is need to update the best path so far
-			if( !this.goalReached || (currentEv.getInd()).position.equals(pop.goal) ) {	
-				if((currentEv.getInd()).position.equals(pop.goal)) 
-					this.goalReached = true;
-										
-				saveBest( currentEv.getInd());
-			} 
+			//the event can now be reused
+			pool.release( currentEv );
 			
 			//if there are no more events to simulate stop the simulation
 			if(pec.isEmptyPEC()) break;
@@ -92,14 +128,146 @@ public class StochasticShortestPath extends StochasticSimulation{
 			currentTime = currentEv.getTime();
 			
 			//an observation is launched every simulationTime/20 time units
-			if( currentTime - lastObs >= simulationTime/20 || currentTime > simulationTime) {
-		
-				DeterministicEvent obs = new Observation( goalReached, shortestPath, bestCost, this);
-				obs.simulateEvent();
-				lastObs = (int)Math.floor(currentTime);
-			} 
+			lastObs = observe( lastObs );
 		}		
-	}	
+	}
+	
+	/**
+	 * This method runs the same simulation as simulate() with a PrimitivePEC, where each event is only a
+	 * (time, slot, kind) triple. The individual of an event is found by its slot in the population and
+	 * the event is simulated according to its kind, so no event objects are created.
+	 */
+	protected void simulatePrimitive() {
+		
+		int lastObs = 0;
+		
+		//add the first events to the PEC
+		for(int i = 0; i < pop.v; i++) {
+			addFirstEvents( pop.individuals[i] );
+		}
+		
+		//get the first event from the pec
+		currentTime = primitivePec.getFirstTime();
+		int slot = primitivePec.getFirstSlot();
+		byte kind = primitivePec.getFirstKind();
+		primitivePec.removeFirst();
+		
+		//simulate events until the end of the simulation time
+		while( currentTime < simulationTime ) {
+			
+			//the individual has to be found before an epidemic frees its slot
+			Individual ind = pop.getBySlot( slot );
+			
+			//if the population exceeds the maximum an Epidemic is launched
+			if(pop.v >= pop.vmax) {
+				StochasticEvent evE = new Epidemic( pop );
+				evE.simulateEvent();
+			}
+			
+			//the epidemic may have killed the individual of the current event, in which case it is dropped
+			if( ind.isAlive() ) {
+				
+				eventCounter++;
+				
+				//with a single clock per individual, the clock is simply updated
+				if(singleClock) {
+					Individual child = Clock.tick( ind );
+					if(child != null)
+						addFirstEvents( child );
+					if(ind.isAlive())
+						primitivePec.addEvent( ind.nextTime(), slot, ind.nextKind() );
+				}
+				//otherwise simulate the current event according to its kind
+				else switch(kind) {
+					case StochasticEvent.DEATH:
+						primitivePec.removeSlotEvents( slot );
+						pop.removeInd( ind );
+						break;
+					case StochasticEvent.MOVE:
+						primitivePec.addEvent( Move.newTime( ind ), slot, StochasticEvent.MOVE );
+						grid.step( ind );
+						ind.update();
+						break;
+					case StochasticEvent.REPRODUCTION:
+						primitivePec.addEvent( Reproduction.newTime( ind ), slot, StochasticEvent.REPRODUCTION );
+						addFirstEvents( ind.makeChild() );
+						break;
+				}
+				
+				//check if there is need to update the best path so far
+				updateBest( ind );
+			}
+			
+			//if there are no more events to simulate stop the simulation
+			if(primitivePec.isEmptyPEC()) break;
+			
+			//get the next event form the PEC and fast forward to its time
+			currentTime = primitivePec.getFirstTime();
+			slot = primitivePec.getFirstSlot();
+			kind = primitivePec.getFirstKind();
+			primitivePec.removeFirst();
+			
+			//an observation is launched every simulationTime/20 time units
+			lastObs = observe( lastObs );
+		}
+	}
+	
+	/**
+	 * This method adds the death, first move and first reproduction of a new individual to the PrimitivePEC,
+	 * or only the first of them if the individual keeps a single clock.
+	 * @param ind the new individual.
+	 */
+	protected void addFirstEvents(Individual ind) {
+		
+		if(singleClock) {
+			Clock.start( ind );
+			primitivePec.addEvent( ind.nextTime(), ind.slot, ind.nextKind() );
+			return;
+		}
+		primitivePec.addEvent( Death.newTime( ind ), ind.slot, StochasticEvent.DEATH );
+		primitivePec.addEvent( Move.newTime( ind ), ind.slot, StochasticEvent.MOVE );
+		primitivePec.addEvent( Reproduction.newTime( ind ), ind.slot, StochasticEvent.REPRODUCTION );
+	}
+	
+	/**
+	 * A setter for the scheduling of the events of the individuals.
+	 * @param singleClock true if each individual is to keep a single Clock in the PEC, instead of
+	 * separate Death, Move and Reproduction events.
+	 */
+	public void setSingleClock(boolean singleClock) {
+		this.singleClock = singleClock;
+	}
+	
+	/**
+	 * This method checks if there is need to update the best path so far after an event of an individual.
+	 * @param ind the individual of the event that was simulated.
+	 */
+	protected void updateBest(Individual ind) {
+		
+		if( !this.goalReached || ind.cell == grid.goalCell ) {	
+			if(ind.cell == grid.goalCell) 
+				this.goalReached = true;
+									
+			saveBest( ind );
+		} 
+	}
+	
+	/**
+	 * This method launches an observation every simulationTime/20 time units, and one more when the
+	 * simulation time is over, or reached by the last leap of the simulation.
+	 * @param lastObs the instant of the last observation.
+	 * @return the instant of the last observation, after the one launched if any.
+	 */
+	protected int observe(int lastObs) {
+		
+		if( currentTime - lastObs >= simulationTime/20 || currentTime >= simulationTime) {
+			
+			DeterministicEvent obs = new Observation( goalReached, shortestPath, bestCost, this);
+			obs.simulateEvent();
+			lastObs = (int)Math.floor(currentTime);
+		} 
+		return lastObs;
+	}
 	
 	/**
 	 * This method keeps track of the best path found so far in the simulation by updating
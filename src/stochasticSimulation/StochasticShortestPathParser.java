@@ -10,7 +10,7 @@ public class StochasticShortestPathParser extends  DefaultHandler{
 	protected String finalinst, initpop, maxpop, comfortsens, 
 		   colsnb, rowsnb, xinitial, yinitial, xfinal, yfinal, 
 		   zxinitial, zyinitial, zxfinal, zyfinal, 
-		   num, numSpZones, xpos, ypos, cost, dparam, rparam, mparam;
+		   num, numSpZones, xpos, ypos, cost, dparam, rparam, mparam, pecType, scheduling, engine, epsilon, distance, temperature;
 	
 	protected int nObstacles, nSpZones = 0, maxCost = 1;
 		
@@ -89,6 +89,30 @@ public class StochasticShortestPathParser extends  DefaultHandler{
 		return Integer.parseInt(mparam);
 	}
 	
+	public String getPECType() {
+		return pecType;
+	}
+	
+	public String getScheduling() {
+		return scheduling;
+	}
+	
+	public String getEngine() {
+		return engine;
+	}
+	
+	public String getEpsilon() {
+		return epsilon;
+	}
+	
+	public String getDistance() {
+		return distance;
+	}
+	
+	public String getMoveTemperature() {
+		return temperature;
+	}
+	
 	@Override
 	public void startElement( String uri, String localName, String qName, Attributes attributes) throws SAXException{
 		
@@ -97,6 +121,11 @@ public class StochasticShortestPathParser extends  DefaultHandler{
 			initpop =  attributes.getValue("initpop");
 			maxpop =  attributes.getValue("maxpop");
 			comfortsens =  attributes.getValue("comfortsens");
+			pecType = attributes.getValue("pec");
+			scheduling = attributes.getValue("scheduling");
+			engine = attributes.getValue("engine");
+			epsilon = attributes.getValue("epsilon");
+			distance = attributes.getValue("distance");
 		}
 		
 		else if(qName.equalsIgnoreCase("grid")) {
@@ -158,6 +187,7 @@ public class StochasticShortestPathParser extends  DefaultHandler{
 		}
 		else if(qName.equalsIgnoreCase("move")) {
 			mparam = attributes.getValue("param");
+			temperature = attributes.getValue("temperature");
 		}
 		
 	}
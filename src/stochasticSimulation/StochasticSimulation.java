@@ -1,9 +1,16 @@
 package stochasticSimulation;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
 
-import pec.PEC;
+import pec.IPEC;
+import pec.PECFactory;
+import pec.PrimitivePEC;
+import pec.RecordingPEC;
 
 /**
  * An abstract class that implements the interface IStochasticSimulation.
@@ -64,15 +71,28 @@ public abstract class StochasticSimulation implements IStochasticSimulation {
 	/**
 	 * The pending event container of the simulation.
 	 */
-	protected PEC pec;
+	protected IPEC pec;
+	/**
+	 * The pending event container of the simulation when events are not kept as objects. If it is used
+	 * the PEC of Event objects is null.
+	 */
+	protected PrimitivePEC primitivePec;
+	/**
+	 * The pool where the Move, Reproduction and Death events of the simulation are reused.
+	 */
+	protected EventPool pool = new EventPool();
+	/**
+	 * An auxiliary array where the events removed from the PEC are kept until they are given back to the pool.
+	 */
+	private Event[] removed = new Event[StochasticEvent.KINDS];
 	/**
 	 * The currentEv being simulated in the StochasticSimulation.
 	 */
 	protected Event currentEv;
 	
 	/**
-	 * The constructor of StochasticSimulation associates the simulation with a population, creates a PEC with initial size 3 * size of the population
-	 * and initializes the parameters.
+	 * The constructor of a StochasticSimulation that keeps no events, and so has no PEC. It associates the simulation
+	 * with a population and initializes the parameters.
 	 * @param pop the population to be associated with the Simulation.
 	 * @param moveParam the multiplicative parameter for the mean time between move events in the simulation.
 	 * @param deathParam the multiplicative parameter for the mean time between death events in the simulation.
@@ -86,10 +106,164 @@ public abstract class StochasticSimulation implements IStochasticSimulation {
 		this.reprParam = reprParam;
 		this.deathParam = deathParam;
 		this.simulationTime = simulationTime;
+	}
+	
+	/**
+	 * The constructor of StochasticSimulation associates the simulation with a population, creates a PEC with initial size 3 * size of the population
+	 * and initializes the parameters.
+	 * @param pop the population to be associated with the Simulation.
+	 * @param moveParam the multiplicative parameter for the mean time between move events in the simulation.
+	 * @param deathParam the multiplicative parameter for the mean time between death events in the simulation.
+	 * @param reprParam the multiplicative parameter for the mean time between reproduction events in the simulation.
+	 * @param simulationTime The final instant of the simulation.
+	 * @param pecType the name of the PEC implementation to use, or null for the default one.
+	 */
+	StochasticSimulation(Population pop, int moveParam, int deathParam, int reprParam, double simulationTime, String pecType){
+	
+		this( pop, moveParam, deathParam, reprParam, simulationTime );
+		
+		//by dafault the PEC starts with space for 3 events per individual in the population
+		if( PrimitivePEC.NAME.equalsIgnoreCase(pecType) ) {
+			primitivePec = new PrimitivePEC( 3 * pop.v, StochasticEvent.KINDS );
+		} else {
+			Comparator<Event> comparator = new EventComparator();
+			pec = PECFactory.newPEC( pecType, 3 * pop.v, comparator );
+		}
+		
+	}
+	
+	/**
+	 * This method sets the seed of the random generator of every simulation, so that a run can be repeated.
+	 * @param seed the seed of the random generator.
+	 */
+	static void setSeed(long seed) {
+		random.setSeed(seed);
+	}
+	
+	/**
+	 * This method makes the PEC record every call made to it in a trace file, to be replayed later.
+	 * The primitive PEC can not be recorded, since it keeps no Event objects.
+	 * @param file the name of the trace file.
+	 * @throws IllegalArgumentException if the simulation uses the primitive PEC.
+	 */
+	void recordTrace(String file) {
+		if(pec == null)
+			throw new IllegalArgumentException("The " + PrimitivePEC.NAME + " PEC can not be traced");
+		pec = new RecordingPEC( pec, file );
+	}
+	
+	/**
+	 * This method closes the trace file of the PEC, if the PEC is being recorded.
+	 * @throws UncheckedIOException if the trace file can not be written.
+	 */
+	void closeTrace() {
+		if(pec instanceof RecordingPEC) {
+			try {
+				((RecordingPEC) pec).close();
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	/**
+	 * This method adds an event to the PEC. Null events are ignored, since the EventPool gives no event
+	 * when its time would be posterior to the death of the individual.
+	 * @param ev the event to be added, or null.
+	 */
+	protected void addEvent(Event ev) {
+		if(ev != null)
+			pec.addEvent( ev );
+	}
+	
+	/**
+	 * This method removes the pending events of an individual from the pending event container in use.
+	 * The events removed from a PEC that indexes them are given back to the pool. Events that have
+	 * no index in the PEC may still be stored in it, as tombstones, so they are left to the garbage collector.
+	 * @param ind the individual whose events are to be removed.
+	 */
+	protected void removeIndEvents(Individual ind) {
+		if(primitivePec != null) {
+			primitivePec.removeSlotEvents( ind.slot );
+			return;
+		}
+		
+		//keep the events that leave the PEC before their handles are dropped
+		List<Event> pending = ind.getPendingEvents();
+		if(removed.length < pending.size())
+			removed = new Event[pending.size()];
+		int nRemoved = 0;
+		for(Event ev : pending) {
+			if(ev.getPecIndex() >= 0)
+				removed[nRemoved++] = ev;
+		}
 		
-		Comparator<Event> comparator = new EventComparator();
-		pec = new PEC( 3 * pop.v, comparator ); //by dafault the PEC starts with space for 3 events per individual in the population
+		pec.removeIndEvents( ind );
 		
+		for(int i = 0; i < nRemoved; i++) {
+			pool.release( removed[i] );
+			removed[i] = null;
+		}
+	}
+	
+	/**
+	 * This method removes the pending events of many individuals at once from the pending event container in use,
+	 * which PECs that search for the events do in a single pass. The events removed from a PEC that indexes them
+	 * are given back to the pool.
+	 * @param inds the individuals whose events are to be removed.
+	 */
+	protected void removeIndEvents(List<Individual> inds) {
+		if(primitivePec != null) {
+			for(Individual ind : inds)
+				primitivePec.removeSlotEvents( ind.slot );
+			return;
+		}
+		
+		//keep the events that leave the PEC before their handles are dropped
+		int nRemoved = 0;
+		for(Individual ind : inds) {
+			List<Event> pending = ind.getPendingEvents();
+			if(removed.length < nRemoved + pending.size())
+				removed = Arrays.copyOf(removed, 2 * (nRemoved + pending.size()));
+			for(Event ev : pending) {
+				if(ev.getPecIndex() >= 0)
+					removed[nRemoved++] = ev;
+			}
+		}
+		
+		pec.removeIndEvents( inds );
+		
+		for(int i = 0; i < nRemoved; i++) {
+			pool.release( removed[i] );
+			removed[i] = null;
+		}
+	}
+	
+	/**
+	 * This method computes the rate at which an individual moves, the inverse of the mean time between its moves.
+	 * @param comfort the comfort of the individual.
+	 * @return the rate of moves of the individual.
+	 */
+	protected double moveRate(double comfort) {
+		return 1 / ( (1 - Math.log(comfort)) * moveParam );
+	}
+	
+	/**
+	 * This method computes the rate at which an individual reproduces, the inverse of the mean time between its reproductions.
+	 * @param comfort the comfort of the individual.
+	 * @return the rate of reproductions of the individual.
+	 */
+	protected double reprRate(double comfort) {
+		return 1 / ( (1 - Math.log(comfort)) * reprParam );
+	}
+	
+	/**
+	 * This method computes the rate at which an individual dies, the inverse of the mean time until its death.
+	 * @param comfort the comfort of the individual.
+	 * @return the rate of death of the individual.
+	 */
+	protected double deathRate(double comfort) {
+		return 1 / ( (1 - Math.log(1 - comfort)) * deathParam );
 	}
 	
 	/**
@@ -0,0 +1,161 @@
+package stochasticSimulation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TauLeapingShortestPath is an approximate StochasticShortestPath that advances the simulation in leaps of
+ * time tau instead of one event at a time. In each leap the number of moves, reproductions and deaths of every
+ * individual is drawn from a Poisson distribution with the rates the individual had at the start of the leap,
+ * and all of them are applied in bulk with Grid.step(), Individual.update() and Individual.makeChild().
+ * The order of the events within a leap is lost, which is the price paid for simulating many events per step.
+ * The leap adapts to the population: it is chosen so that each individual takes on average epsilon events per leap,
+ * and so that the births of a leap are not expected to take the population much beyond its maximum.
+ *
+ * @author Manuel Serra
+ */
+public class TauLeapingShortestPath extends StochasticShortestPath {
+
+	/**
+	 * The default mean number of events of an individual in a leap.
+	 */
+	static final double DEFAULT_EPSILON = 0.1;
+
+	/**
+	 * The mean number of events of an individual in a leap. Smaller values make the simulation more accurate and slower.
+	 */
+	protected double epsilon = DEFAULT_EPSILON;
+
+	/**
+	 * Constructor for a TauLeapingShortestPath instance.
+	 * @param pop the population of the simulation.
+	 * @param grid the grid where the simulation is taking place.
+	 * @param moveParam the parameter for the mean of Move events.
+	 * @param deathParam the parameter for the mean of Death events.
+	 * @param reprParam the parameter for the mean of Reproduction events.
+	 * @param simulationTime the final time of the simulation.
+	 */
+	TauLeapingShortestPath(Population pop, Grid grid, int moveParam,
+							int deathParam, int reprParam, double simulationTime){
+
+		super( pop, grid, moveParam, deathParam, reprParam, simulationTime);
+	}
+
+	/**
+	 * The individuals keep no pending events between leaps, so there are no events to remove when they die.
+	 * @param ind the individual whose events are to be removed.
+	 */
+	@Override
+	protected void removeIndEvents(Individual ind) {
+	}
+
+	/**
+	 * The individuals keep no pending events between leaps, so there are no events to remove when they die.
+	 * @param inds the individuals whose events are to be removed.
+	 */
+	@Override
+	protected void removeIndEvents(List<Individual> inds) {
+	}
+
+	/**
+	 * This method evolves the population in leaps until the end of the simulation time. The individuals born
+	 * in a leap only act from the next leap on.
+	 */
+	@Override
+	public void simulate() {
+
+		int lastObs = 0;
+
+		while( currentTime < simulationTime ) {
+
+			//if the population exceeds the maximum an Epidemic is launched
+			if(pop.v >= pop.vmax) {
+				StochasticEvent evE = new Epidemic( pop );
+				evE.simulateEvent();
+			}
+
+			//if there are no more individuals stop the simulation
+			if(pop.v == 0) break;
+
+			Individual[] alive = Arrays.copyOf( pop.individuals, pop.v );
+			double tau = newTau();
+			if(tau <= 0 || Double.isInfinite(tau)) break;
+
+			//the last leap ends with the simulation
+			tau = Math.min( tau, simulationTime - currentTime );
+
+			for(Individual ind : alive) {
+
+				//an epidemic in this leap may have killed the individual
+				if( !ind.isAlive() ) continue;
+
+				int moves = StochasticEvent.poissonRandom( tau * moveRate(ind.comfort) );
+				int reproductions = StochasticEvent.poissonRandom( tau * reprRate(ind.comfort) );
+				int deaths = StochasticEvent.poissonRandom( tau * deathRate(ind.comfort) );
+
+				for(int i = 0; i < moves; i++) {
+					eventCounter++;
+					grid.step( ind );
+					ind.update();
+					updateBest( ind );
+				}
+
+				for(int i = 0; i < reproductions; i++) {
+					eventCounter++;
+					ind.makeChild();
+					updateBest( ind );
+
+					if(pop.v >= pop.vmax) {
+						StochasticEvent evE = new Epidemic( pop );
+						evE.simulateEvent();
+						if( !ind.isAlive() ) break;
+					}
+				}
+
+				if(deaths > 0 && ind.isAlive()) {
+					eventCounter++;
+					pop.removeInd( ind );
+					updateBest( ind );
+				}
+			}
+
+			//fast forward to the end of the leap
+			currentTime += tau;
+
+			//an observation is launched every simulationTime/20 time units
+			lastObs = observe( lastObs );
+		}
+	}
+
+	/**
+	 * This method computes the length of the next leap. It is the time in which an individual takes epsilon events
+	 * on average, shortened if needed so that the expected births do not take the population beyond its maximum by
+	 * more than one individual.
+	 * @return the length of the leap.
+	 */
+	protected double newTau() {
+
+		double totalRate = 0, totalReprRate = 0;
+		for(int i = 0; i < pop.v; i++) {
+			double comfort = pop.individuals[i].comfort;
+			double reprRate = reprRate(comfort);
+			totalRate += moveRate(comfort) + reprRate + deathRate(comfort);
+			totalReprRate += reprRate;
+		}
+
+		double tau = epsilon * pop.v / totalRate;
+
+		if(totalReprRate > 0)
+			tau = Math.min( tau, Math.max(1, pop.vmax - pop.v) / totalReprRate );
+
+		return tau;
+	}
+
+	/**
+	 * A setter for the mean number of events of an individual in a leap.
+	 * @param epsilon the mean number of events of an individual in a leap.
+	 */
+	public void setEpsilon(double epsilon) {
+		this.epsilon = epsilon;
+	}
+}
@@ -0,0 +1,476 @@
+package stochasticSimulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The TiledGrid class is a Grid whose cells are kept in a memory mapped file instead of the heap, for grids too large
+ * to fit in it. The grid is divided in square tiles of TILE x TILE cells, stored one after the other in the file, and
+ * each cell takes a record with its cost, the moves out of it that are blocked, a bit that tells whether it is an
+ * obstacle and its distance to the goal.
+ * Tiles are mapped when they are first needed and the most recently used ones are kept in a small LRU cache, while
+ * the operating system keeps in memory the pages that are being used.
+ * The file starts with zeros, which are read as cost 1, every move valid, no obstacle and unknown distance, so only
+ * the cells of the special cost zones, the obstacles, their neighbours and the borders of the grid are ever written
+ * before the simulation starts. The valid moves of a cell are then read from its own record, and the costs of the
+ * steps are computed from the records of the cells when they are needed, so step(), getStepCost() and
+ * getDistanceToGoal() work as in a Grid. The costs of the special zones must fit in the 27 bits of the record kept
+ * for them.
+ * The cells are still given by the int indices used by Grid and by the paths of the individuals, so a tiled grid can
+ * have at most 2^31 - 1 cells, about 46340 x 46340. Larger grids, such as 50000 x 50000, are refused by the
+ * constructor, since numbering their cells with longs would change the whole simulation and not only the grid.
+ * The file is closed with close() once the grid is no longer needed.
+ *
+ * @author Manuel Serra
+ */
+public class TiledGrid extends Grid implements Closeable {
+
+	/**
+	 * The number of bits of the side of a tile.
+	 */
+	static final int TILE_SHIFT = 8;
+	/**
+	 * The number of cells in the side of a tile.
+	 */
+	static final int TILE = 1 << TILE_SHIFT;
+	/**
+	 * The number of bytes of the record of a cell: the cost, blocked moves and obstacle bit, then the distance to the
+	 * goal plus one.
+	 */
+	static final int RECORD = 8;
+	/**
+	 * The number of bytes of a tile in the file.
+	 */
+	static final int TILE_BYTES = TILE * TILE * RECORD;
+	/**
+	 * The bits of the first int of a record that keep the cost of the cell.
+	 */
+	static final int COST = (1 << 27) - 1;
+	/**
+	 * The position of the 4 bits of the first int of a record that are set for the moves out of the cell that are
+	 * blocked, in the order of the bits of a mask of moves.
+	 */
+	static final int BLOCKED_SHIFT = 27;
+	/**
+	 * The bit of the first int of a record that is set if the cell is an obstacle.
+	 */
+	static final int OBSTACLE = 1 << 31;
+	/**
+	 * The number of tiles kept in the cache.
+	 */
+	static final int CACHE_TILES = 64;
+
+	/**
+	 * The number of tiles in each row of tiles.
+	 */
+	protected final int tilesX;
+	/**
+	 * The file where the tiles are kept.
+	 */
+	protected final RandomAccessFile file;
+	/**
+	 * The channel of the file, from which the tiles are mapped.
+	 */
+	protected final FileChannel channel;
+	/**
+	 * The tiles mapped most recently, in order of use.
+	 */
+	protected final Map<Integer, ByteBuffer> cache = new LinkedHashMap<Integer, ByteBuffer>(2 * CACHE_TILES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, ByteBuffer> eldest) {
+			return size() > CACHE_TILES;
+		}
+	};
+	/**
+	 * The tile used last by each thread, read before the cache so that runs of cells in the same tile do not wait
+	 * for its lock. Each thread keeps its own, so the threads of the search do not replace each other's tiles.
+	 */
+	protected final ThreadLocal<Tile> last = ThreadLocal.withInitial( () -> new Tile(-1, null) );
+	/**
+	 * True once the distances to the goal have been computed.
+	 */
+	protected boolean distReady = false;
+
+	/**
+	 * Constructor for a tiled grid with obstacles and special zones, kept in a given file.
+	 * Any contents of the file are discarded.
+	 * @param file is the name of the file where the tiles are kept.
+	 * @param N is the number of columns of the grid.
+	 * @param M is the number of rows in the grid.
+	 * @param C is the maximum cost of a special zone.
+	 * @param spZones is an array of the special zones existing in the grid.
+	 * @param obstacles is an array of the obstacles existing in the grid.
+	 * @throws IllegalArgumentException if the grid has more than 2^31 - 1 cells.
+	 */
+	public TiledGrid(String file, int N, int M, int C, SpecialZone[] spZones, Obstacle[] obstacles) {
+
+		if((long) N * M > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("A grid can have at most " + Integer.MAX_VALUE + " cells: " + N + "x" + M);
+
+		dimN = N;
+		dimM = M;
+		cmax = C;
+		this.spZones = spZones;
+		this.obstacles = obstacles;
+		tilesX = (N + TILE - 1) / TILE;
+		int tilesY = (M + TILE - 1) / TILE;
+
+		try {
+			this.file = new RandomAccessFile(file, "rw");
+			//the file is filled with zeros, without writing them where the file system allows it
+			this.file.setLength(0);
+			this.file.setLength( (long) tilesX * tilesY * TILE_BYTES );
+			channel = this.file.getChannel();
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		try {
+			if(spZones != null)
+				setCostMap();
+			setObstacleMask();
+			compileMoves();
+		} catch(RuntimeException e) {
+			try {
+				close();
+			} catch(IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * This method closes the file of the tiles and drops the tiles mapped from it. The grid cannot be used after it
+	 * is closed, and the tiles kept by other threads as their last one are dropped with the grid.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		synchronized(cache) {
+			cache.clear();
+			last.remove();
+		}
+		file.close();
+	}
+
+	/**
+	 * This method retrieves the valid moves from a cell, as the moves that are not blocked in its record.
+	 */
+	@Override
+	protected int getMoveMask(int cell) {
+		return ~( tile(cell).getInt( offset(cell) ) >>> BLOCKED_SHIFT ) & 15;
+	}
+
+	/**
+	 * This method computes the cost of a valid move from a cell from the costs of the cells.
+	 */
+	@Override
+	protected int getMoveCost(int cell, int move) {
+		return computeStepCost( cell, cell + moveOffsets[move] );
+	}
+
+	/**
+	 * This method reads the cost of a cell from its record.
+	 */
+	@Override
+	protected int getCellCost(int cell) {
+		return Math.max( 1, tile(cell).getInt( offset(cell) ) & COST );
+	}
+
+	/**
+	 * This method reads the obstacle bit of a cell from its record.
+	 */
+	@Override
+	protected boolean isObstacle(int cell) {
+		return (tile(cell).getInt( offset(cell) ) & OBSTACLE) != 0;
+	}
+
+	/**
+	 * This method reads the distance from a cell to the goal from its record, once it has been computed.
+	 */
+	@Override
+	protected int getDistanceToGoal(int cell) {
+
+		if(!distReady) return super.getDistanceToGoal(cell);
+
+		int dist = tile(cell).getInt( offset(cell) + 4 );
+		return dist == 0 ? distScale : dist - 1;
+	}
+
+	/**
+	 * This method draws the borders of the special cost zones in the records of their cells, keeping in each cell
+	 * the maximum cost of the zones that cross it. The zones are drawn one by one, since the records are not atomic.
+	 * @throws IllegalArgumentException if the cost of a zone does not fit in the records.
+	 */
+	@Override
+	protected void setCostMap() {
+
+		for(SpecialZone zone : spZones) {
+			if(zone.cost > COST)
+				throw new IllegalArgumentException("A tiled grid can have costs of at most " + COST + ": " + zone.cost);
+			drawZone( zone, cell -> {
+				ByteBuffer tile = tile(cell);
+				int record = tile.getInt( offset(cell) );
+				if( (record & COST) < zone.cost )
+					tile.putInt( offset(cell), (record & ~COST) | zone.cost );
+			} );
+		}
+	}
+
+	/**
+	 * This method sets the obstacle bit in the records of the cells of the obstacles.
+	 */
+	@Override
+	protected void setObstacleMask() {
+
+		if(obstacles == null) return;
+		for(Obstacle obst : obstacles) {
+			if(obst != null && obst.getX() >= 1 && obst.getX() <= dimN && obst.getY() >= 1 && obst.getY() <= dimM) {
+				int cell = toCell(obst);
+				ByteBuffer tile = tile(cell);
+				tile.putInt( offset(cell), tile.getInt( offset(cell) ) | OBSTACLE );
+			}
+		}
+	}
+
+	/**
+	 * This method sets the offsets of the moves and blocks, in the records of the cells, the moves out of the grid
+	 * and the moves into an obstacle. Every other move is valid, as read from the zeros of the file, so only the
+	 * cells along the borders and around the obstacles are written. The costs of the steps are not kept, since they
+	 * are computed from the records when needed.
+	 */
+	@Override
+	protected void compileMoves() {
+
+		moveOffsets = new int[] {dimN, 1, -dimN, -1};
+
+		//the moves out of the grid
+		for(int x = 0; x < dimN; x++) {
+			blockMoves( x, 4 );
+			blockMoves( (dimM - 1) * dimN + x, 1 );
+		}
+		for(int y = 0; y < dimM; y++) {
+			blockMoves( y * dimN, 8 );
+			blockMoves( y * dimN + dimN - 1, 2 );
+		}
+
+		//the moves into each obstacle, from each of its neighbours
+		if(obstacles == null) return;
+		for(Obstacle obst : obstacles) {
+			if(obst != null && obst.getX() >= 1 && obst.getX() <= dimN && obst.getY() >= 1 && obst.getY() <= dimM) {
+				int cell = toCell(obst);
+				int x = cell % dimN, y = cell / dimN;
+				if( y > 0 ) blockMoves( cell - dimN, 1 );
+				if( x > 0 ) blockMoves( cell - 1, 2 );
+				if( y + 1 < dimM ) blockMoves( cell + dimN, 4 );
+				if( x + 1 < dimN ) blockMoves( cell + 1, 8 );
+			}
+		}
+	}
+
+	/**
+	 * This method blocks moves out of a cell in its record.
+	 * @param cell is the index of the cell.
+	 * @param moves is the mask of the moves to block.
+	 */
+	protected void blockMoves(int cell, int moves) {
+		ByteBuffer tile = tile(cell);
+		tile.putInt( offset(cell), tile.getInt( offset(cell) ) | moves << BLOCKED_SHIFT );
+	}
+
+	/**
+	 * This method computes the distance from every cell to the goal with a breadth first search from the goal that
+	 * runs in parallel over the tiles. The cells of each level of the search are grouped by tile, and each tile is
+	 * expanded by a single thread, which writes only the records of its own tile. The neighbours found in other tiles
+	 * are passed to the threads of their tiles, which give them the distance of the level if they have none yet.
+	 * The distances are written to the records plus one, so that the zeros of the file are unknown distances.
+	 */
+	@Override
+	protected void setDistanceField() {
+
+		Map<Integer, CellList> frontier = new ConcurrentHashMap<>();
+		setDist(goalCell, 0);
+		frontier.computeIfAbsent( tileOf(goalCell), t -> new CellList() ).add(goalCell);
+		int maxDist = 0;
+
+		for(int level = 1; !frontier.isEmpty(); level++) {
+
+			int dist = level;
+			Map<Integer, CellList> next = new ConcurrentHashMap<>();
+			Map<Integer, CellList> crossing = new ConcurrentHashMap<>();
+
+			//expand the cells of each tile, keeping the neighbours in other tiles for their own threads
+			frontier.entrySet().parallelStream().forEach( e -> {
+				int t = e.getKey();
+				CellList found = new CellList();
+				CellList cells = e.getValue();
+				for(int i = 0; i < cells.size; i++) {
+					int cell = cells.cells[i];
+					for(int mask = getMoveMask(cell); mask != 0; mask &= mask - 1) {
+						int neighbour = cell + moveOffsets[ Integer.numberOfTrailingZeros(mask) ];
+						int nt = tileOf(neighbour);
+						if(nt != t) {
+							crossing.compute( nt, (k, list) -> {
+								if(list == null) list = new CellList();
+								list.add(neighbour);
+								return list;
+							} );
+						}
+						else if(getDist(neighbour) == 0) {
+							setDist(neighbour, dist);
+							found.add(neighbour);
+						}
+					}
+				}
+				if(found.size > 0) next.put(t, found);
+			} );
+
+			//the neighbours found across tiles are given the distance of the level by the threads of their tiles
+			crossing.entrySet().parallelStream().forEach( e -> {
+				CellList cells = e.getValue();
+				CellList found = null;
+				for(int i = 0; i < cells.size; i++) {
+					int cell = cells.cells[i];
+					if(getDist(cell) == 0) {
+						setDist(cell, dist);
+						if(found == null) found = next.computeIfAbsent( e.getKey(), k -> new CellList() );
+						found.add(cell);
+					}
+				}
+			} );
+
+			if(!next.isEmpty()) maxDist = level;
+			frontier = next;
+		}
+
+		distScale = Math.max(distScale, maxDist + 1);
+		distReady = true;
+	}
+
+	/**
+	 * This method reads the distance of a cell plus one, or 0 if it is unknown.
+	 * @param cell is the index of the cell.
+	 * @return the distance stored in the record of the cell.
+	 */
+	protected int getDist(int cell) {
+		return tile(cell).getInt( offset(cell) + 4 );
+	}
+
+	/**
+	 * This method writes the distance of a cell to its record.
+	 * @param cell is the index of the cell.
+	 * @param dist is the distance from the cell to the goal.
+	 */
+	protected void setDist(int cell, int dist) {
+		tile(cell).putInt( offset(cell) + 4, dist + 1 );
+	}
+
+	/**
+	 * This method finds the tile of a cell.
+	 * @param cell is the index of the cell.
+	 * @return the index of the tile, counting the tiles row by row from 0.
+	 */
+	protected int tileOf(int cell) {
+		int x = cell % dimN, y = cell / dimN;
+		return (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+	}
+
+	/**
+	 * This method finds the position of the record of a cell in its tile.
+	 * @param cell is the index of the cell.
+	 * @return the offset of the record in bytes.
+	 */
+	protected int offset(int cell) {
+		int x = cell % dimN, y = cell / dimN;
+		return ( ((y & (TILE - 1)) << TILE_SHIFT) + (x & (TILE - 1)) ) * RECORD;
+	}
+
+	/**
+	 * This method retrieves the tile of a cell from the cache, mapping it from the file if it is not there.
+	 * @param cell is the index of the cell.
+	 * @return the buffer of the tile of the cell.
+	 */
+	protected ByteBuffer tile(int cell) {
+
+		int t = tileOf(cell);
+		Tile recent = last.get();
+		if(recent.index == t) return recent.buffer;
+
+		synchronized(cache) {
+			ByteBuffer tile = cache.get(t);
+			if(tile == null) {
+				try {
+					tile = channel.map( FileChannel.MapMode.READ_WRITE, (long) t * TILE_BYTES, TILE_BYTES );
+				} catch(IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				tile.order( ByteOrder.nativeOrder() );
+				cache.put(t, tile);
+			}
+			last.set( new Tile(t, tile) );
+			return tile;
+		}
+	}
+
+	/**
+	 * The Tile class pairs the buffer of a tile with its index.
+	 */
+	static class Tile {
+
+		/**
+		 * The index of the tile.
+		 */
+		final int index;
+		/**
+		 * The buffer of the tile.
+		 */
+		final ByteBuffer buffer;
+
+		/**
+		 * Constructor for a Tile.
+		 * @param index the index of the tile.
+		 * @param buffer the buffer of the tile.
+		 */
+		Tile(int index, ByteBuffer buffer) {
+			this.index = index;
+			this.buffer = buffer;
+		}
+	}
+
+	/**
+	 * The CellList class is a list of cell indices that grows as needed, used for the levels of the search.
+	 */
+	static class CellList {
+
+		/**
+		 * The cells of the list.
+		 */
+		int[] cells = new int[16];
+		/**
+		 * The number of cells in the list.
+		 */
+		int size = 0;
+
+		/**
+		 * This method adds a cell to the list.
+		 * @param cell is the index of the cell.
+		 */
+		void add(int cell) {
+			if(size == cells.length)
+				cells = Arrays.copyOf(cells, 2 * size);
+			cells[size++] = cell;
+		}
+	}
+}
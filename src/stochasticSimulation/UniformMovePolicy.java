@@ -0,0 +1,22 @@
+package stochasticSimulation;
+
+/**
+ * The UniformMovePolicy chooses every valid move with the same probability, so individuals walk at random.
+ *
+ * @author Manuel Serra
+ */
+class UniformMovePolicy implements MovePolicy {
+
+	/**
+	 * This method chooses a random valid move, skipping the valid moves before it in the mask.
+	 */
+	@Override
+	public int chooseMove(Grid grid, int cell, int mask) {
+
+		int moveIndx = StochasticSimulation.random.nextInt( Integer.bitCount(mask) );
+		for(; moveIndx > 0; moveIndx--)
+			mask &= mask - 1;
+
+		return Integer.numberOfTrailingZeros(mask);
+	}
+}
@@ -0,0 +1,120 @@
+package main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ *SeededRunTest runs the simulations of the input files in the TESTS folder with a fixed seed and checks that
+ *runs that only differ in how the simulation is implemented print exactly the same output: every PEC gives the
+ *same run, with the events of each individual kept apart or in a single clock. Each run takes place in a new
+ *virtual machine, since the counters of the simulation are static.
+ *Usage: java main.SeededRunTest [TESTS folder]
+ *
+ * @author Manuel Serra
+ */
+public class SeededRunTest {
+
+	/**
+	 *  The seed of every run.
+	*/
+	static final String SEED = "seed=42";
+
+	/**
+	 *  The PECs that must give the same run.
+	*/
+	static final String[] PECS = {"indexed", "binary", "lazy", "calendar", "concurrent", "primitive"};
+
+	/**
+	 *  The ways of scheduling the events of the individuals.
+	*/
+	static final String[] SCHEDULINGS = {"split", "clock"};
+
+	/**
+	 * Runs the checks on every input file and prints OK if they all pass.
+	 * @param args the folder of the input files, TESTS by default.
+	 * @throws IOException if a run can not be started.
+	 * @throws InterruptedException if the test is interrupted while waiting for a run.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		File dir = new File( args.length > 0 ? args[0] : "TESTS" );
+		File[] inputs = dir.listFiles( (d, name) -> name.endsWith(".xml") );
+		if(inputs == null || inputs.length == 0)
+			throw new AssertionError("No input files in " + dir);
+		Arrays.sort(inputs);
+
+		for(File input : inputs) {
+
+			//the same seed gives the same run
+			String first = run(input, SEED);
+			check( first.equals( run(input, SEED) ), input.getName() + ": two runs with the same seed differ" );
+
+			for(String scheduling : SCHEDULINGS) {
+				String expected = run(input, SEED, "pec=" + PECS[0], "scheduling=" + scheduling);
+				for(int i = 1; i < PECS.length; i++) {
+					String out = run(input, SEED, "pec=" + PECS[i], "scheduling=" + scheduling);
+					check( expected.equals(out), input.getName() + ": pec=" + PECS[i] + " scheduling=" + scheduling
+							+ " differs from pec=" + PECS[0] );
+				}
+			}
+		}
+		System.out.println("SeededRunTest OK");
+	}
+
+	/**
+	 * This method runs a simulation in a new virtual machine with the same class path as this one.
+	 * @param input the input file.
+	 * @param options the options given after the input file.
+	 * @return what the simulation printed.
+	 * @throws IOException if the run can not be started.
+	 * @throws InterruptedException if the test is interrupted while waiting for the run.
+	 */
+	static String run(File input, String... options) throws IOException, InterruptedException {
+
+		List<String> command = new ArrayList<String>();
+		command.add( new File( System.getProperty("java.home"), "bin/java" ).getPath() );
+		command.add("-cp");
+		command.add( System.getProperty("java.class.path") );
+		command.add("main.Main");
+		command.add( input.getPath() );
+		command.addAll( Arrays.asList(options) );
+
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+		String out = read( process.getInputStream() );
+		process.waitFor();
+
+		check( !out.contains("Exception"), input.getName() + " " + Arrays.toString(options) + " failed:\n" + out );
+		check( out.contains("Number of realised events"), input.getName() + " " + Arrays.toString(options)
+				+ " printed no observation:\n" + out );
+		return out;
+	}
+
+	/**
+	 * This method reads a stream to its end.
+	 * @param in the stream.
+	 * @return the contents of the stream.
+	 * @throws IOException if the stream can not be read.
+	 */
+	static String read(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1 << 16];
+		for(int n; (n = in.read(buffer)) > 0; )
+			out.write(buffer, 0, n);
+		return out.toString();
+	}
+
+	/**
+	 * This method throws an AssertionError with a message if a condition does not hold.
+	 * @param condition the condition.
+	 * @param message the message.
+	 */
+	static void check(boolean condition, String message) {
+		if(!condition) throw new AssertionError(message);
+	}
+}
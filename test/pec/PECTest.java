@@ -0,0 +1,345 @@
+package pec;
+import stochasticSimulation.Event;
+import stochasticSimulation.EventComparator;
+import stochasticSimulation.Individual;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+
+/**
+ *PECTest checks that every implementation of the PEC interface returns the events in order of time, removes
+ *the events of an individual, alone or together with others, and throws NoSuchElementException once it is empty.
+ *The PrimitivePEC, which keeps no Event objects, is only checked to throw it once it is empty.
+ *Each PEC is compared with a plain list of the events that should be waiting in it.
+ *Usage: java pec.PECTest
+ *
+ * @author Manuel Serra
+ */
+public class PECTest {
+
+	/**
+	 *  The PECs checked, as named in PECFactory, and a RecordingPEC in front of the default one.
+	*/
+	static final String[] TYPES = {"binary", "lazy", "indexed", "calendar", "concurrent", "recording"};
+
+	/**
+	 *  The number of individuals that own the events.
+	*/
+	static final int INDIVIDUALS = 64;
+
+	/**
+	 *An Event that does nothing when simulated, with a given time and individual.
+	 */
+	static class TestEvent implements Event {
+
+		/**
+		 *  The individual of the event.
+		*/
+		final Individual ind;
+
+		/**
+		 *  The time of the event.
+		*/
+		final double time;
+
+		/**
+		 *  The position of the event in the PEC.
+		*/
+		int pecIndex = -1;
+
+		/**
+		 *Constructor for a TestEvent.
+		 *
+		 * @param ind is the individual of the event.
+		 * @param time is the time of the event.
+		 */
+		TestEvent(Individual ind, double time) {
+			this.ind = ind;
+			this.time = time;
+		}
+
+		public void simulateEvent() {
+		}
+
+		public int getIndID() {
+			return ind.getID();
+		}
+
+		public Individual getInd() {
+			return ind;
+		}
+
+		public double getTime() {
+			return time;
+		}
+
+		public int getPecIndex() {
+			return pecIndex;
+		}
+
+		public void setPecIndex(int index) {
+			pecIndex = index;
+		}
+	}
+
+	/**
+	 * Runs the checks on every PEC and prints OK if they all pass.
+	 * @param args not used.
+	 * @throws IOException if the trace of the RecordingPEC can not be written.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		for(String type : TYPES) {
+			checkOrder(type);
+			checkRemoval(type);
+			checkEmpty(type);
+		}
+		checkPrimitiveEmpty();
+		System.out.println("PECTest OK");
+	}
+
+	/**
+	 * This method checks that the events come out of a PEC in order of time, with events added as others leave.
+	 * @param type the name of the PEC.
+	 * @throws IOException if the trace of the RecordingPEC can not be written.
+	 */
+	static void checkOrder(String type) throws IOException {
+
+		Random random = new Random(1);
+		Individual[] inds = individuals();
+		IPEC pec = newPEC(type);
+		List<Event> expected = new ArrayList<Event>();
+
+		double now = 0;
+		for(int i = 0; i < 20000; i++) {
+			//two additions for each retrieval, so the PEC grows as it is used
+			if(random.nextInt(3) > 0 || expected.isEmpty()) {
+				Event ev = new TestEvent( inds[random.nextInt(INDIVIDUALS)], now + random.nextDouble() * 10 );
+				pec.addEvent(ev);
+				expected.add(ev);
+			} else {
+				Event ev = pec.getNextEvent();
+				check( ev.getTime() >= now, type + ": event at " + ev.getTime() + " after " + now );
+				check( expected.remove(ev), type + ": event that was not in the PEC" );
+				check( ev.getTime() == earliest(expected, ev.getTime()), type + ": a later event came first" );
+				now = ev.getTime();
+			}
+			check( pec.getSize() == expected.size(), type + ": size " + pec.getSize() + " instead of " + expected.size() );
+		}
+
+		//events with negative times are never kept
+		pec.addEvent( new TestEvent( inds[0], -1 ) );
+		check( pec.getSize() == expected.size(), type + ": an event with negative time was kept" );
+
+		drain(type, pec, expected);
+		close(pec);
+	}
+
+	/**
+	 * This method checks that the events of individuals removed one by one or many at once never leave the PEC,
+	 * and that the events of the other individuals all do, in order.
+	 * @param type the name of the PEC.
+	 * @throws IOException if the trace of the RecordingPEC can not be written.
+	 */
+	static void checkRemoval(String type) throws IOException {
+
+		Random random = new Random(2);
+		Individual[] inds = individuals();
+		IPEC pec = newPEC(type);
+		List<Event> expected = new ArrayList<Event>();
+
+		for(int i = 0; i < 5000; i++) {
+			Event ev = new TestEvent( inds[random.nextInt(INDIVIDUALS)], random.nextDouble() * 100 );
+			pec.addEvent(ev);
+			expected.add(ev);
+		}
+
+		//take a few events out first, so that the removals find a PEC that has been used
+		for(int i = 0; i < 500; i++) {
+			Event ev = pec.getNextEvent();
+			check( ev.getTime() == earliest(expected, ev.getTime()), type + ": a later event came first" );
+			expected.remove(ev);
+		}
+
+		//the first individuals are removed one by one, the next ones all at once
+		for(int i = 0; i < 8; i++) {
+			pec.removeIndEvents( inds[i] );
+			removeAll(expected, inds[i]);
+			check( pec.getSize() == expected.size(), type + ": size " + pec.getSize() + " instead of " + expected.size() );
+		}
+		List<Individual> victims = Arrays.asList(inds).subList(8, 32);
+		pec.removeIndEvents( victims );
+		for(Individual ind : victims)
+			removeAll(expected, ind);
+		check( pec.getSize() == expected.size(), type + ": size " + pec.getSize() + " instead of " + expected.size() );
+
+		//removing an individual without events changes nothing
+		pec.removeIndEvents( new Individual(INDIVIDUALS) );
+		check( pec.getSize() == expected.size(), type + ": removing an individual without events changed the size" );
+
+		drain(type, pec, expected);
+		close(pec);
+	}
+
+	/**
+	 * This method checks that an empty PEC, new or emptied, throws NoSuchElementException.
+	 * @param type the name of the PEC.
+	 * @throws IOException if the trace of the RecordingPEC can not be written.
+	 */
+	static void checkEmpty(String type) throws IOException {
+
+		IPEC pec = newPEC(type);
+		check( pec.isEmptyPEC() && pec.getSize() == 0, type + ": a new PEC is not empty" );
+		checkThrows(type, pec);
+
+		Individual ind = new Individual(0);
+		pec.addEvent( new TestEvent( ind, 1 ) );
+		pec.addEvent( new TestEvent( ind, 2 ) );
+		check( !pec.isEmptyPEC() && pec.getSize() == 2, type + ": the PEC does not hold two events" );
+		pec.removeIndEvents( ind );
+		check( pec.isEmptyPEC(), type + ": the PEC is not empty after its events were removed" );
+		checkThrows(type, pec);
+		close(pec);
+	}
+
+	/**
+	 * This method checks that the first event of an empty PrimitivePEC, new or emptied, can not be read or removed.
+	 */
+	static void checkPrimitiveEmpty() {
+
+		PrimitivePEC pec = new PrimitivePEC(4, 3);
+		checkPrimitiveThrows(pec);
+
+		pec.addEvent(1, 0, (byte) 0);
+		pec.addEvent(2, 0, (byte) 1);
+		check( pec.getSize() == 2 && pec.getFirstTime() == 1, "primitive: the PEC does not hold two events" );
+		pec.removeSlotEvents(0);
+		check( pec.isEmptyPEC(), "primitive: the PEC is not empty after its events were removed" );
+		checkPrimitiveThrows(pec);
+	}
+
+	/**
+	 * This method checks that every method that reads or removes the first event of an empty PrimitivePEC throws
+	 * NoSuchElementException.
+	 * @param pec the empty PEC.
+	 */
+	static void checkPrimitiveThrows(PrimitivePEC pec) {
+
+		Runnable[] calls = { pec::getFirstTime, pec::getFirstSlot, pec::getFirstKind, pec::removeFirst };
+		String[] names = {"getFirstTime()", "getFirstSlot()", "getFirstKind()", "removeFirst()"};
+		for(int i = 0; i < calls.length; i++) {
+			try {
+				calls[i].run();
+			} catch(NoSuchElementException e) {
+				continue;
+			}
+			throw new AssertionError("primitive: " + names[i] + " on an empty PEC did not throw NoSuchElementException");
+		}
+	}
+
+	/**
+	 * This method retrieves every event left in a PEC and checks that they are the expected ones, in order,
+	 * and that the PEC is empty at the end.
+	 * @param type the name of the PEC.
+	 * @param pec the PEC.
+	 * @param expected the events that should be in the PEC, which is emptied.
+	 */
+	static void drain(String type, IPEC pec, List<Event> expected) {
+
+		while( !expected.isEmpty() ) {
+			check( !pec.isEmptyPEC(), type + ": the PEC is empty with " + expected.size() + " events left" );
+			Event ev = pec.getNextEvent();
+			check( ev.getTime() == earliest(expected, ev.getTime()), type + ": a later event came first" );
+			check( expected.remove(ev), type + ": event of a removed individual at " + ev.getTime() );
+		}
+		check( pec.isEmptyPEC() && pec.getSize() == 0, type + ": the PEC is not empty at the end" );
+		checkThrows(type, pec);
+	}
+
+	/**
+	 * This method checks that getNextEvent() throws NoSuchElementException.
+	 * @param type the name of the PEC.
+	 * @param pec the empty PEC.
+	 */
+	static void checkThrows(String type, IPEC pec) {
+		try {
+			pec.getNextEvent();
+		} catch(NoSuchElementException e) {
+			return;
+		}
+		throw new AssertionError(type + ": getNextEvent() on an empty PEC did not throw NoSuchElementException");
+	}
+
+	/**
+	 * This method creates a new PEC, or a RecordingPEC in front of the default PEC, writing to a temporary file.
+	 * @param type the name of the PEC.
+	 * @return the new PEC.
+	 * @throws IOException if the temporary file can not be created.
+	 */
+	static IPEC newPEC(String type) throws IOException {
+
+		if(!type.equals("recording"))
+			return PECFactory.newPEC(type, 16, new EventComparator());
+
+		File trace = File.createTempFile("pec", ".trace");
+		trace.deleteOnExit();
+		return new RecordingPEC( PECFactory.newPEC(null, 16, new EventComparator()), trace.getPath() );
+	}
+
+	/**
+	 * This method closes the trace of a RecordingPEC.
+	 * @param pec the PEC.
+	 * @throws IOException if the trace can not be written.
+	 */
+	static void close(IPEC pec) throws IOException {
+		if(pec instanceof RecordingPEC)
+			((RecordingPEC) pec).close();
+	}
+
+	/**
+	 * This method creates the individuals that own the events.
+	 * @return the individuals.
+	 */
+	static Individual[] individuals() {
+		Individual[] inds = new Individual[INDIVIDUALS];
+		for(int i = 0; i < INDIVIDUALS; i++)
+			inds[i] = new Individual(i);
+		return inds;
+	}
+
+	/**
+	 * This method finds the earliest time among a list of events.
+	 * @param events the events.
+	 * @param time the time returned if the list is empty.
+	 * @return the earliest time.
+	 */
+	static double earliest(List<Event> events, double time) {
+		for(Event ev : events)
+			time = Math.min(time, ev.getTime());
+		return time;
+	}
+
+	/**
+	 * This method removes the events of an individual from a list.
+	 * @param events the events.
+	 * @param ind the individual.
+	 */
+	static void removeAll(List<Event> events, Individual ind) {
+		events.removeIf( ev -> ev.getInd() == ind );
+	}
+
+	/**
+	 * This method throws an AssertionError with a message if a condition does not hold.
+	 * @param condition the condition.
+	 * @param message the message.
+	 */
+	static void check(boolean condition, String message) {
+		if(!condition) throw new AssertionError(message);
+	}
+}
@@ -0,0 +1,140 @@
+package stochasticSimulation;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * BFSDistanceTest checks the distance field of a Grid against a reference breadth first search over the points of
+ * the grid, on grids with random obstacles, on a grid whose goal is walled in and on a winding corridor whose
+ * distances are longer than the width plus the height of the grid. The cells from which the goal can not be reached
+ * must be at distScale, which must be larger than every distance found and never smaller than its initial value.
+ * Usage: java stochasticSimulation.BFSDistanceTest
+ *
+ * @author Manuel Serra
+ */
+public class BFSDistanceTest {
+
+	/**
+	 * Runs the checks and prints OK if they all pass.
+	 * @param args not used.
+	 */
+	public static void main(String[] args) {
+
+		Random random = new Random(8);
+
+		//random obstacles, from none to most of the cells
+		for(int round = 0; round < 200; round++) {
+			int N = 1 + random.nextInt(40), M = 1 + random.nextInt(40);
+			boolean[][] blocked = new boolean[N + 1][M + 1];
+			double density = random.nextDouble() * 0.6;
+			for(int x = 1; x <= N; x++)
+				for(int y = 1; y <= M; y++)
+					blocked[x][y] = random.nextDouble() < density;
+			Point goal = new Point( 1 + random.nextInt(N), 1 + random.nextInt(M) );
+			blocked[goal.getX()][goal.getY()] = false;
+			checkField( N, M, blocked, goal, "round " + round );
+		}
+
+		//a goal walled in reaches only itself
+		boolean[][] walled = new boolean[11][11];
+		walled[5][4] = walled[5][6] = walled[4][5] = walled[6][5] = true;
+		checkField( 10, 10, walled, new Point(5, 5), "walled goal" );
+
+		//a corridor winding through every other row, much longer than the width plus the height of the grid
+		int N = 20, M = 21;
+		boolean[][] corridor = new boolean[N + 1][M + 1];
+		for(int y = 2; y <= M; y += 2) {
+			for(int x = 1; x <= N; x++)
+				corridor[x][y] = true;
+			corridor[ y % 4 == 2 ? N : 1 ][y] = false;
+		}
+		checkField( N, M, corridor, new Point(1, 1), "corridor" );
+
+		System.out.println("BFSDistanceTest OK");
+	}
+
+	/**
+	 * This method computes the distance field of a grid and checks it against the reference search.
+	 * @param N the number of columns of the grid.
+	 * @param M the number of rows of the grid.
+	 * @param blocked the obstacles, indexed by the coordinates of their points.
+	 * @param goal the goal.
+	 * @param name the name of the check, for the messages.
+	 */
+	static void checkField(int N, int M, boolean[][] blocked, Point goal, String name) {
+
+		int count = 0;
+		for(int x = 1; x <= N; x++)
+			for(int y = 1; y <= M; y++)
+				if(blocked[x][y]) count++;
+		Obstacle[] obstacles = new Obstacle[count];
+		for(int x = 1; x <= N; x++)
+			for(int y = 1; y <= M; y++)
+				if(blocked[x][y]) obstacles[--count] = new Obstacle(x, y);
+
+		Grid grid = new Grid(N, M, obstacles);
+		grid.goalCell = grid.toCell(goal);
+		grid.distScale = N + M + 1;
+		grid.setDistanceField();
+
+		int[][] expected = reference(N, M, blocked, goal);
+		int maxDist = 0;
+		for(int x = 1; x <= N; x++)
+			for(int y = 1; y <= M; y++)
+				maxDist = Math.max(maxDist, expected[x][y]);
+		check( grid.distScale == Math.max(N + M + 1, maxDist + 1), name + ": distScale is " + grid.distScale
+				+ " with a largest distance of " + maxDist );
+
+		for(int x = 1; x <= N; x++) {
+			for(int y = 1; y <= M; y++) {
+				int dist = expected[x][y] < 0 ? grid.distScale : expected[x][y];
+				int found = grid.getDistanceToGoal( grid.toCell( new Point(x, y) ) );
+				check( found == dist, name + ": (" + x + "," + y + ") is at distance " + found + " instead of " + dist );
+			}
+		}
+	}
+
+	/**
+	 * This method finds the distance from every free point of a grid to the goal with a breadth first search over the
+	 * points of the grid, stepping to the free points next to each point.
+	 * @param N the number of columns of the grid.
+	 * @param M the number of rows of the grid.
+	 * @param blocked the obstacles, indexed by the coordinates of their points.
+	 * @param goal the goal.
+	 * @return the distances, indexed by the coordinates of the points, with -1 for the points that can not reach the
+	 * goal and the obstacles.
+	 */
+	static int[][] reference(int N, int M, boolean[][] blocked, Point goal) {
+
+		int[][] dist = new int[N + 1][M + 1];
+		for(int[] column : dist)
+			Arrays.fill(column, -1);
+
+		ArrayDeque<int[]> queue = new ArrayDeque<int[]>();
+		dist[goal.getX()][goal.getY()] = 0;
+		queue.add( new int[] {goal.getX(), goal.getY()} );
+		int[][] steps = { {0, 1}, {1, 0}, {0, -1}, {-1, 0} };
+
+		while( !queue.isEmpty() ) {
+			int[] p = queue.poll();
+			for(int[] step : steps) {
+				int x = p[0] + step[0], y = p[1] + step[1];
+				if(x >= 1 && x <= N && y >= 1 && y <= M && !blocked[x][y] && dist[x][y] < 0) {
+					dist[x][y] = dist[p[0]][p[1]] + 1;
+					queue.add( new int[] {x, y} );
+				}
+			}
+		}
+		return dist;
+	}
+
+	/**
+	 * This method throws an AssertionError with a message if a condition does not hold.
+	 * @param condition the condition.
+	 * @param message the message.
+	 */
+	static void check(boolean condition, String message) {
+		if(!condition) throw new AssertionError(message);
+	}
+}
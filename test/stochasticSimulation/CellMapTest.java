@@ -0,0 +1,72 @@
+package stochasticSimulation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * CellMapTest checks a CellMap against a HashMap under random additions and changes, and after it is cleared, with
+ * cells drawn from a small range, so that the clusters of the table are long, and from the whole range of cell
+ * indices.
+ * Usage: java stochasticSimulation.CellMapTest
+ *
+ * @author Manuel Serra
+ */
+public class CellMapTest {
+
+	/**
+	 * Runs the checks and prints OK if they all pass.
+	 * @param args not used.
+	 */
+	public static void main(String[] args) {
+
+		Random random = new Random(4);
+
+		for(int range : new int[] {64, 4096, Integer.MAX_VALUE}) {
+
+			CellMap map = new CellMap(4);
+			Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+
+			for(int round = 0; round < 200000; round++) {
+
+				int cell = random.nextInt(range);
+
+				if(random.nextInt(10) < 6) {
+					int value = random.nextInt(1000);
+					map.put(cell, value);
+					expected.put(cell, value);
+				}
+
+				int probe = random.nextBoolean() ? cell : random.nextInt(range);
+				int value = expected.containsKey(probe) ? expected.get(probe) : -1;
+				check( map.get(probe) == value, "get(" + probe + ") is " + map.get(probe) + " instead of " + value );
+				check( map.size() == expected.size(), "size " + map.size() + " instead of " + expected.size() );
+
+				//every so often every cell is looked up, which finds cells the growth of the table left out of reach
+				if(round % 10000 == 0) {
+					for(Map.Entry<Integer, Integer> entry : expected.entrySet())
+						check( map.get(entry.getKey()) == entry.getValue(), "cell " + entry.getKey() + " was lost" );
+				}
+				if(round % 50000 == 25000) {
+					map.clear();
+					expected.clear();
+					check( map.size() == 0 && map.get(cell) == -1, "the map is not empty after clear()" );
+				}
+			}
+
+			for(Map.Entry<Integer, Integer> entry : expected.entrySet())
+				check( map.get(entry.getKey()) == entry.getValue(), "cell " + entry.getKey() + " was lost" );
+		}
+
+		System.out.println("CellMapTest OK");
+	}
+
+	/**
+	 * This method throws an AssertionError with a message if a condition does not hold.
+	 * @param condition the condition.
+	 * @param message the message.
+	 */
+	static void check(boolean condition, String message) {
+		if(!condition) throw new AssertionError(message);
+	}
+}
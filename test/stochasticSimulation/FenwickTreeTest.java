@@ -0,0 +1,103 @@
+package stochasticSimulation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * FenwickTreeTest checks the sums and searches of a FenwickTree against a plain array of the same values, as the
+ * values change and the tree grows. The values are multiples of 1/8, so that every sum is exact.
+ * Usage: java stochasticSimulation.FenwickTreeTest
+ *
+ * @author Manuel Serra
+ */
+public class FenwickTreeTest {
+
+	/**
+	 * Runs the checks and prints OK if they all pass.
+	 * @param args not used.
+	 */
+	public static void main(String[] args) {
+
+		Random random = new Random(3);
+		FenwickTree tree = new FenwickTree(5);
+		double[] values = new double[0];
+
+		for(int round = 0; round < 20000; round++) {
+
+			//most changes fall in the values kept so far, some make the tree grow
+			int i = random.nextInt(10) > 0 || values.length == 0 ? random.nextInt(Math.max(values.length, 1))
+					: values.length + random.nextInt(40);
+			double value = random.nextInt(4) == 0 ? 0 : random.nextInt(64) / 8.0;
+
+			tree.set(i, value);
+			if(i >= values.length)
+				values = Arrays.copyOf(values, i + 1);
+			values[i] = value;
+
+			check( tree.capacity() >= values.length, "capacity " + tree.capacity() + " below " + values.length );
+			check( tree.get(i) == value, "get(" + i + ") is " + tree.get(i) + " instead of " + value );
+			check( tree.total() == sum(values, values.length), "total " + tree.total() + " instead of "
+					+ sum(values, values.length) );
+
+			int j = random.nextInt(values.length + 1);
+			check( tree.sum(j) == sum(values, j), "sum(" + j + ") is " + tree.sum(j) + " instead of " + sum(values, j) );
+
+			double u = random.nextInt( (int) (8 * tree.total()) + 1 ) / 8.0;
+			check( tree.find(u) == find(values, u, tree.capacity()), "find(" + u + ") is " + tree.find(u)
+					+ " instead of " + find(values, u, tree.capacity()) );
+		}
+
+		//a rebuild gives the same sums as the changes made one by one
+		double total = tree.total();
+		tree.build();
+		check( tree.total() == total, "the total changed after a rebuild" );
+
+		//positions with value 0 are never found
+		FenwickTree sparse = new FenwickTree(16);
+		sparse.set(3, 1);
+		sparse.set(9, 2);
+		check( sparse.find(0) == 3 && sparse.find(0.99) == 3, "a position before the first value was found" );
+		check( sparse.find(1) == 9 && sparse.find(2.99) == 9, "a position between the values was found" );
+		check( sparse.find(3) >= 16, "a position was found beyond the total" );
+
+		System.out.println("FenwickTreeTest OK");
+	}
+
+	/**
+	 * This method adds the first values of an array.
+	 * @param values the values.
+	 * @param n the number of values to add.
+	 * @return the sum of the values in positions 0 to n-1.
+	 */
+	static double sum(double[] values, int n) {
+		double sum = 0;
+		for(int i = 0; i < n; i++)
+			sum += values[i];
+		return sum;
+	}
+
+	/**
+	 * This method finds the position where the cumulative sum of an array goes beyond u with a linear scan.
+	 * @param values the values.
+	 * @param u the cumulative sum to find.
+	 * @param capacity the position returned when u is not smaller than the total.
+	 * @return the position found.
+	 */
+	static int find(double[] values, double u, int capacity) {
+		double sum = 0;
+		for(int i = 0; i < values.length; i++) {
+			sum += values[i];
+			if(sum > u) return i;
+		}
+		return capacity;
+	}
+
+	/**
+	 * This method throws an AssertionError with a message if a condition does not hold.
+	 * @param condition the condition.
+	 * @param message the message.
+	 */
+	static void check(boolean condition, String message) {
+		if(!condition) throw new AssertionError(message);
+	}
+}
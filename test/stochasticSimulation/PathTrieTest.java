@@ -0,0 +1,164 @@
+package stochasticSimulation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * PathTrieTest checks a PathTrie held by random walkers, which extend their paths, cut them as a loop erasure does,
+ * copy them as a child does and die, against the list of cells of the path of each walker. It checks that the node
+ * of each walker is the path it should be, that equal paths share their node, that ancestor() finds every prefix,
+ * that every node counts its holders and children, and that the trie keeps exactly the prefixes of the paths held.
+ * Usage: java stochasticSimulation.PathTrieTest
+ *
+ * @author Manuel Serra
+ */
+public class PathTrieTest {
+
+	/**
+	 * The number of cells the walkers move through, few enough that their paths often meet.
+	 */
+	static final int CELLS = 6;
+
+	/**
+	 * Runs the checks and prints OK if they all pass.
+	 * @param args not used.
+	 */
+	public static void main(String[] args) {
+
+		Random random = new Random(5);
+		PathTrie trie = new PathTrie();
+		List<PathNode> nodes = new ArrayList<PathNode>();
+		List<List<Integer>> paths = new ArrayList<List<Integer>>();
+
+		for(int round = 0; round < 20000; round++) {
+
+			int op = random.nextInt(10);
+			int w = nodes.isEmpty() ? -1 : random.nextInt(nodes.size());
+
+			if(w < 0 || op == 0) {
+				//a new walker with an empty path
+				nodes.add(null);
+				paths.add(new ArrayList<Integer>());
+			}
+			else if(op < 6 && paths.get(w).size() < 40) {
+				//the walker takes a step, whose cost is the cell it steps into
+				int cell = random.nextInt(CELLS);
+				PathNode next = trie.extend( nodes.get(w), cell, cell, cell == 0 );
+				trie.release( nodes.get(w) );
+				nodes.set(w, next);
+				paths.get(w).add(cell);
+			}
+			else if(op < 8 && !paths.get(w).isEmpty()) {
+				//the walker cuts its path after a point, as when a loop is erased
+				int d = random.nextInt( paths.get(w).size() );
+				PathNode cut = trie.retain( nodes.get(w).ancestor(d) );
+				trie.release( nodes.get(w) );
+				nodes.set(w, cut);
+				paths.set(w, new ArrayList<Integer>( paths.get(w).subList(0, d + 1) ));
+			}
+			else if(op < 9) {
+				//the walker has a child that takes its whole path
+				nodes.add( trie.retain( nodes.get(w) ) );
+				paths.add( new ArrayList<Integer>( paths.get(w) ) );
+			}
+			else {
+				//the walker dies
+				trie.release( nodes.remove(w) );
+				paths.remove(w);
+			}
+
+			if(round % 100 == 0)
+				checkTrie(trie, nodes, paths, random);
+		}
+
+		//once every walker is gone the trie is empty
+		checkTrie(trie, nodes, paths, random);
+		for(PathNode node : nodes)
+			trie.release(node);
+		check( trie.size() == 0 && trie.nRoots == 0, "the trie keeps " + trie.size() + " nodes with no walkers left" );
+
+		System.out.println("PathTrieTest OK");
+	}
+
+	/**
+	 * This method checks the trie against the paths of the walkers.
+	 * @param trie the trie.
+	 * @param nodes the node held by each walker.
+	 * @param paths the cells of the path of each walker.
+	 * @param random the random generator of the depths looked up.
+	 */
+	static void checkTrie(PathTrie trie, List<PathNode> nodes, List<List<Integer>> paths, Random random) {
+
+		Map<List<Integer>, PathNode> byPath = new HashMap<List<Integer>, PathNode>();
+		Set<List<Integer>> prefixes = new HashSet<List<Integer>>();
+		Map<PathNode, Integer> holders = new IdentityHashMap<PathNode, Integer>();
+
+		for(int w = 0; w < nodes.size(); w++) {
+			PathNode node = nodes.get(w);
+			List<Integer> path = paths.get(w);
+
+			if(path.isEmpty()) {
+				check( node == null, "a walker with an empty path holds a node" );
+				continue;
+			}
+			holders.merge(node, 1, Integer::sum);
+
+			//the node is the path of the walker
+			int cost = 0;
+			boolean goal = false;
+			for(int i = 1; i < path.size(); i++) cost += path.get(i);
+			for(int cell : path) goal |= cell == 0;
+			check( node.depth == path.size() - 1 && node.cost == cost && node.goal == goal,
+					"the node of a walker has the wrong depth, cost or goal" );
+			PathNode p = node;
+			for(int i = path.size() - 1; i >= 0; i--, p = p.parent)
+				check( p.cell == path.get(i), "the node of a walker has the wrong cell at depth " + i );
+			check( p == null, "the path of a node is longer than the path of its walker" );
+
+			//any depth is found with the jump pointers
+			int d = random.nextInt( path.size() );
+			PathNode ancestor = node.ancestor(d);
+			check( ancestor.depth == d && ancestor.cell == path.get(d), "ancestor(" + d + ") is wrong" );
+
+			//equal paths share their node
+			PathNode same = byPath.putIfAbsent(path, node);
+			check( same == null || same == node, "two walkers with the same path hold different nodes" );
+
+			for(int i = 1; i <= path.size(); i++)
+				prefixes.add( path.subList(0, i) );
+		}
+
+		//the trie keeps exactly the prefixes of the paths held, and each node counts its holders and children
+		int found = 0;
+		List<PathNode> stack = new ArrayList<PathNode>();
+		for(int i = 0; i < trie.nRoots; i++)
+			stack.add(trie.roots[i]);
+		while( !stack.isEmpty() ) {
+			PathNode node = stack.remove(stack.size() - 1);
+			found++;
+			int refs = holders.getOrDefault(node, 0) + node.nChildren;
+			check( node.refs == refs, "a node counts " + node.refs + " references instead of " + refs );
+			for(int i = 0; i < node.nChildren; i++) {
+				check( node.children[i].parent == node, "a child does not point to its parent" );
+				stack.add(node.children[i]);
+			}
+		}
+		check( found == trie.size(), "the trie has " + found + " nodes but counts " + trie.size() );
+		check( found == prefixes.size(), "the trie has " + found + " nodes for " + prefixes.size() + " prefixes" );
+	}
+
+	/**
+	 * This method throws an AssertionError with a message if a condition does not hold.
+	 * @param condition the condition.
+	 * @param message the message.
+	 */
+	static void check(boolean condition, String message) {
+		if(!condition) throw new AssertionError(message);
+	}
+}
@@ -0,0 +1,95 @@
+package stochasticSimulation;
+
+/**
+ * SoftmaxMovePolicyTest checks the moves chosen by a SoftmaxMovePolicy on an open grid: at tiny temperatures, where
+ * the weights used to overflow, every move gets closer to the goal; at a moderate temperature the moves are chosen
+ * with the softmax probabilities; and at a huge temperature they are chosen as by the UniformMovePolicy.
+ * Usage: java stochasticSimulation.SoftmaxMovePolicyTest
+ *
+ * @author Manuel Serra
+ */
+public class SoftmaxMovePolicyTest {
+
+	/**
+	 * The number of moves drawn to measure the frequency of each move.
+	 */
+	static final int DRAWS = 200000;
+
+	/**
+	 * Runs the checks and prints OK if they all pass.
+	 * @param args not used.
+	 */
+	public static void main(String[] args) {
+
+		StochasticSimulation.setSeed(6);
+
+		Grid grid = new Grid(30, 30);
+		grid.goalCell = grid.toCell( new Point(30, 30) );
+
+		//at tiny temperatures the walk goes straight to the goal
+		for(double temperature : new double[] {1e-3, 1e-100, Double.MIN_VALUE}) {
+			SoftmaxMovePolicy policy = new SoftmaxMovePolicy(temperature);
+			int cell = grid.toCell( new Point(1, 1) );
+			int steps = 0;
+			while(cell != grid.goalCell) {
+				int dist = grid.getDistanceToGoal(cell);
+				cell += grid.moveOffsets[ policy.chooseMove( grid, cell, grid.getMoveMask(cell) ) ];
+				check( grid.getDistanceToGoal(cell) == dist - 1, "temperature " + temperature
+						+ ": a move did not get closer to the goal" );
+				check( ++steps <= 58, "temperature " + temperature + ": the walk did not reach the goal" );
+			}
+		}
+
+		//from the middle of the grid up and right get closer to the goal, down and left get farther
+		int middle = grid.toCell( new Point(15, 15) );
+		int mask = grid.getMoveMask(middle);
+		check( mask == 15, "the middle of an open grid does not have 4 moves" );
+
+		double closer = 1 / (2 + 2 * Math.exp(-2));
+		double[] expected = {closer, closer, 0.5 - closer, 0.5 - closer};
+		checkFrequencies( new SoftmaxMovePolicy(1), grid, middle, mask, expected, "temperature 1" );
+		checkFrequencies( new SoftmaxMovePolicy(1e300), grid, middle, mask, new double[] {0.25, 0.25, 0.25, 0.25},
+				"temperature 1e300" );
+
+		//only the valid moves are chosen, from a corner
+		int corner = grid.toCell( new Point(30, 1) );
+		checkFrequencies( new SoftmaxMovePolicy(1), grid, corner, grid.getMoveMask(corner),
+				new double[] {1 / (1 + Math.exp(-2)), 0, 0, 1 - 1 / (1 + Math.exp(-2))}, "corner" );
+
+		System.out.println("SoftmaxMovePolicyTest OK");
+	}
+
+	/**
+	 * This method draws many moves from a cell and checks that the frequency of each move is close to its probability.
+	 * @param policy the policy.
+	 * @param grid the grid.
+	 * @param cell the index of the cell.
+	 * @param mask the valid moves from the cell.
+	 * @param expected the probability of each move.
+	 * @param name the name of the check, for the message.
+	 */
+	static void checkFrequencies(MovePolicy policy, Grid grid, int cell, int mask, double[] expected, String name) {
+
+		int[] counts = new int[4];
+		for(int i = 0; i < DRAWS; i++)
+			counts[ policy.chooseMove(grid, cell, mask) ]++;
+
+		for(int move = 0; move < 4; move++) {
+			double p = expected[move];
+			//five standard deviations of the frequency of the move
+			double tolerance = 5 * Math.sqrt( p * (1 - p) / DRAWS ) + 1e-9;
+			double frequency = (double) counts[move] / DRAWS;
+			check( Math.abs(frequency - p) <= tolerance, name + ": move " + move + " chosen with frequency "
+					+ frequency + " instead of " + p );
+		}
+	}
+
+	/**
+	 * This method throws an AssertionError with a message if a condition does not hold.
+	 * @param condition the condition.
+	 * @param message the message.
+	 */
+	static void check(boolean condition, String message) {
+		if(!condition) throw new AssertionError(message);
+	}
+}
@@ -0,0 +1,97 @@
+package stochasticSimulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * TiledGridTest checks a TiledGrid against a Grid with the same random obstacles and special cost zones, on grids
+ * that fit in a tile and grids that cross the borders of the tiles. It checks that every cell has the same obstacle
+ * bit, cost, valid moves and step costs, that the distances to the goal found by the breadth first search over the
+ * tiles are those of the Grid, that close() closes the file of the tiles, and that a grid with more cells than an int
+ * can number is refused.
+ * Usage: java stochasticSimulation.TiledGridTest
+ *
+ * @author Manuel Serra
+ */
+public class TiledGridTest {
+
+	/**
+	 * Runs the checks and prints OK if they all pass.
+	 * @param args not used.
+	 * @throws IOException if the file of the tiles can not be created.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		Random random = new Random(7);
+		File file = File.createTempFile("tiles", ".bin");
+		file.deleteOnExit();
+
+		int[][] sizes = { {1, 1}, {1, 40}, {30, 20}, {256, 256}, {300, 270}, {600, 3} };
+		for(int[] size : sizes) {
+
+			int N = size[0], M = size[1];
+			Obstacle[] obstacles = new Obstacle[ N * M / 4 ];
+			for(int i = 0; i < obstacles.length; i++)
+				obstacles[i] = new Obstacle( 1 + random.nextInt(N), 1 + random.nextInt(M) );
+			SpecialZone[] zones = new SpecialZone[ 1 + random.nextInt(20) ];
+			for(int i = 0; i < zones.length; i++)
+				zones[i] = new SpecialZone( 1 + random.nextInt(9), new Point( random.nextInt(N + 2), random.nextInt(M + 2) ),
+						new Point( random.nextInt(N + 2), random.nextInt(M + 2) ) );
+
+			Grid grid = new Grid(N, M, 9, zones, obstacles);
+			TiledGrid tiled = new TiledGrid(file.getPath(), N, M, 9, zones, obstacles);
+			String name = N + "x" + M;
+
+			for(int cell = 0; cell < N * M; cell++) {
+				check( tiled.isObstacle(cell) == grid.isObstacle(cell), name + ": cell " + cell + " obstacle differs" );
+				check( tiled.getCellCost(cell) == grid.getCellCost(cell), name + ": cell " + cell + " cost differs" );
+				int mask = grid.getMoveMask(cell);
+				check( tiled.getMoveMask(cell) == mask, name + ": cell " + cell + " has moves " + tiled.getMoveMask(cell)
+						+ " instead of " + mask );
+				for(int move = 0; move < 4; move++) {
+					if( (mask & (1 << move)) != 0 )
+						check( tiled.getMoveCost(cell, move) == grid.getMoveCost(cell, move), name + ": cell " + cell
+								+ " move " + move + " cost differs" );
+				}
+			}
+
+			//the distances to a free goal, or to any cell if they are all obstacles
+			int goal = random.nextInt(N * M);
+			for(int i = 0; i < N * M && grid.isObstacle(goal); i++)
+				goal = (goal + 1) % (N * M);
+			for(Grid g : new Grid[] {grid, tiled}) {
+				g.goalCell = goal;
+				g.distScale = N + M + 1;
+				g.setDistanceField();
+			}
+			check( tiled.distScale == grid.distScale, name + ": distScale differs" );
+			for(int cell = 0; cell < N * M; cell++)
+				check( tiled.getDistanceToGoal(cell) == grid.getDistanceToGoal(cell), name + ": cell " + cell
+						+ " is at distance " + tiled.getDistanceToGoal(cell) + " instead of " + grid.getDistanceToGoal(cell) );
+
+			tiled.close();
+			check( !tiled.channel.isOpen(), name + ": the file is still open after close()" );
+		}
+
+		//50000 x 50000 cells do not fit in the int indices of the cells
+		boolean refused = false;
+		try {
+			new TiledGrid(file.getPath(), 50000, 50000, 9, null, null).close();
+		} catch(IllegalArgumentException e) {
+			refused = true;
+		}
+		check( refused, "a grid of 50000x50000 cells was not refused" );
+
+		System.out.println("TiledGridTest OK");
+	}
+
+	/**
+	 * This method throws an AssertionError with a message if a condition does not hold.
+	 * @param condition the condition.
+	 * @param message the message.
+	 */
+	static void check(boolean condition, String message) {
+		if(!condition) throw new AssertionError(message);
+	}
+}